@@ -9,7 +9,7 @@ import org.springframework.context.annotation.ComponentScan;
 @ComponentScan(basePackages = "controllers")
 public class BalootApplication {
     public static void main(String[] args) {
-        Baloot.getInstance().fetchAndStoreData();
+        Baloot.getInstance();
         SpringApplication.run(BalootApplication.class, args);
 
     }
@@ -15,7 +15,15 @@ import java.util.Map;
 
 @RestController
 public class AuthenticationController {
-    private Baloot baloot = Baloot.getInstance();
+    private Baloot baloot;
+
+    public AuthenticationController() {
+        this(Baloot.getInstance());
+    }
+
+    AuthenticationController(Baloot baloot) {
+        this.baloot = baloot;
+    }
 
     public void setBaloot(Baloot baloot) {
         this.baloot = baloot;
@@ -17,7 +17,15 @@ import java.util.Map;
 @RestController
 public class BuyListController {
 
-    private Baloot baloot = Baloot.getInstance();
+    private Baloot baloot;
+
+    public BuyListController() {
+        this(Baloot.getInstance());
+    }
+
+    BuyListController(Baloot baloot) {
+        this.baloot = baloot;
+    }
 
     public void setBaloot(Baloot baloot) {
         this.baloot = baloot;
@@ -2,6 +2,7 @@ package controllers;
 
 import exceptions.NotExistentComment;
 import model.Comment;
+import model.Vote;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,7 +16,15 @@ import java.util.Map;
 @RestController
 public class CommentController {
 
-    private Baloot baloot = Baloot.getInstance();
+    private Baloot baloot;
+
+    public CommentController() {
+        this(Baloot.getInstance());
+    }
+
+    CommentController(Baloot baloot) {
+        this.baloot = baloot;
+    }
 
     public void setBaloot(Baloot baloot) {
         this.baloot = baloot;
@@ -26,7 +35,7 @@ public class CommentController {
         try {
             Comment comment = baloot.getCommentById(commentId);
             String username = input.get("username");
-            comment.addUserVote(username, "like");
+            baloot.voteComment(comment, username, Vote.LIKE);
             return new ResponseEntity<>("The comment was successfully liked!", HttpStatus.OK);
         } catch (NotExistentComment e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
@@ -39,7 +48,7 @@ public class CommentController {
         try {
             Comment comment = baloot.getCommentById(commentId);
             String username = input.get("username");
-            comment.addUserVote(username, "dislike");
+            baloot.voteComment(comment, username, Vote.DISLIKE);
             return new ResponseEntity<>("The comment was successfully disliked!", HttpStatus.OK);
         } catch (NotExistentComment e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
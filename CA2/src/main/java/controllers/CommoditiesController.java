@@ -4,33 +4,85 @@ import service.Baloot;
 import model.Comment;
 import model.Commodity;
 import model.User;
+import exceptions.InvalidPriceRange;
+import exceptions.MissingFilter;
+import exceptions.MissingStartOrEndPrice;
 import exceptions.NotExistentCommodity;
 import exceptions.NotExistentUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import search.CommodityFilter;
+import search.CommodityOrderIndex;
+import search.Page;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+
 @RestController
 public class CommoditiesController {
+    private static final String COMMENT_LISTING = "COMMENT";
+
+    private Baloot baloot;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CommoditiesController(ObjectMapper objectMapper) {
+        this(Baloot.getInstance(), objectMapper);
+    }
 
-    private Baloot baloot = Baloot.getInstance();
+    CommoditiesController(Baloot baloot, ObjectMapper objectMapper) {
+        this.baloot = baloot;
+        this.objectMapper = objectMapper;
+    }
 
     public void setBaloot(Baloot baloot) {
         this.baloot = baloot;
     }
     @GetMapping(value = "/commodities")
-    public ResponseEntity<ArrayList<Commodity>> getCommodities() {
-        return new ResponseEntity<>(baloot.getCommodities(), HttpStatus.OK);
+    public ResponseEntity<ArrayList<Commodity>> getCommodities(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = baloot.getCommoditiesEtag();
+        if (EntityTags.matches(ifNoneMatch, etag))
+            return EntityTags.notModified(etag);
+        return EntityTags.ok(baloot.getCommodities(), etag);
+    }
+
+    @GetMapping(value = "/commodities", params = "limit")
+    public ResponseEntity<StreamingResponseBody> getCommoditiesPage(
+            @RequestParam(required = false) String sort, @RequestParam(required = false) String order,
+            @RequestParam(required = false) String cursor, @RequestParam String limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            CommodityOrderIndex.Sort sortBy = Pages.sort(sort);
+            boolean descending = Pages.descending(order);
+            int pageSize = Pages.limit(limit);
+            String etag = baloot.getCommoditiesEtag();
+            if (EntityTags.matches(ifNoneMatch, etag))
+                return EntityTags.notModified(etag);
+            Page<Commodity> page = baloot.getCommoditiesPage(sortBy, descending,
+                    Pages.cursor(cursor, sortBy.name()), pageSize);
+            return Pages.ok(objectMapper, page, sortBy.name(), etag);
+        } catch (IllegalArgumentException e) {
+            return Pages.badRequest(e.getMessage());
+        }
     }
 
     @GetMapping(value = "/commodities/{id}")
-    public ResponseEntity<Commodity> getCommodity(@PathVariable String id) {
+    public ResponseEntity<Commodity> getCommodity(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = baloot.getCommodityEtag(id);
+        if (EntityTags.matches(ifNoneMatch, etag))
+            return EntityTags.notModified(etag);
         try {
             Commodity commodity = baloot.getCommodityById(id);
-            return new ResponseEntity<>(commodity, HttpStatus.OK);
+            return EntityTags.ok(commodity, etag);
         } catch (NotExistentCommodity e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
@@ -42,7 +94,7 @@ public class CommoditiesController {
             int rate = Integer.parseInt(input.get("rate"));
             String username = input.get("username");
             Commodity commodity = baloot.getCommodityById(id);
-            commodity.addRate(username, rate);
+            baloot.rateCommodity(commodity, username, rate);
             return new ResponseEntity<>("rate added successfully!", HttpStatus.OK);
         } catch (NotExistentCommodity e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
@@ -71,10 +123,32 @@ public class CommoditiesController {
     }
 
     @GetMapping(value = "/commodities/{id}/comment")
-    public ResponseEntity<ArrayList<Comment>> getCommodityComment(@PathVariable String id) {
-        ArrayList<Comment> comments = baloot.getCommentsForCommodity(Integer.parseInt(id));
+    public ResponseEntity<ArrayList<Comment>> getCommodityComment(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int commodityId = Integer.parseInt(id);
+        String etag = baloot.getCommentsEtag(commodityId);
+        if (EntityTags.matches(ifNoneMatch, etag))
+            return EntityTags.notModified(etag);
+        ArrayList<Comment> comments = baloot.getCommentsForCommodity(commodityId);
+
+        return EntityTags.ok(comments, etag);
+    }
 
-        return new ResponseEntity<>(comments, HttpStatus.OK);
+    @GetMapping(value = "/commodities/{id}/comment", params = "limit")
+    public ResponseEntity<StreamingResponseBody> getCommodityCommentPage(@PathVariable String id,
+            @RequestParam(required = false) String cursor, @RequestParam String limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            int commodityId = Integer.parseInt(id);
+            int pageSize = Pages.limit(limit);
+            String etag = baloot.getCommentsEtag(commodityId);
+            if (EntityTags.matches(ifNoneMatch, etag))
+                return EntityTags.notModified(etag);
+            Page<Comment> page = baloot.getCommentsPage(commodityId, Pages.cursor(cursor, COMMENT_LISTING), pageSize);
+            return Pages.ok(objectMapper, page, COMMENT_LISTING, etag);
+        } catch (IllegalArgumentException e) {
+            return Pages.badRequest(e.getMessage());
+        }
     }
 
     @PostMapping(value = "/commodities/search")
@@ -86,12 +160,41 @@ public class CommoditiesController {
             case "name" -> baloot.filterCommoditiesByName(searchValue);
             case "category" -> baloot.filterCommoditiesByCategory(searchValue);
             case "provider" -> baloot.filterCommoditiesByProviderName(searchValue);
+            case "text" -> baloot.searchCommoditiesByText(searchValue);
             default -> new ArrayList<>();
         };
 
         return new ResponseEntity<>(commodities, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/commodities/filter")
+    public ResponseEntity<ArrayList<Commodity>> filterCommodities(@RequestParam(required = false) String startPrice,
+            @RequestParam(required = false) String endPrice, @RequestParam(required = false) String category,
+            @RequestParam(required = false) String provider, @RequestParam(required = false) String minRating) {
+        Integer start;
+        Integer end;
+        Float rating;
+        try {
+            start = startPrice == null ? null : Integer.valueOf(startPrice);
+            end = endPrice == null ? null : Integer.valueOf(endPrice);
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            rating = minRating == null ? null : Float.valueOf(minRating);
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            List<String> categories = category == null ? null : List.of(category.split(","));
+            CommodityFilter filter = new CommodityFilter(start, end, categories, provider, rating);
+            return new ResponseEntity<>(baloot.filterCommodities(filter), HttpStatus.OK);
+        } catch (MissingFilter | MissingStartOrEndPrice | InvalidPriceRange e) {
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping(value = "/commodities/{id}/suggested")
     public ResponseEntity<ArrayList<Commodity>> getSuggestedCommodities(@PathVariable String id) {
         try {
@@ -0,0 +1,44 @@
+package controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// Conditional GET for the read endpoints: a matching If-None-Match is answered with 304.
+class EntityTags {
+    private EntityTags() {
+    }
+
+    // If-None-Match uses weak comparison, so a W/ prefix on either side is ignored.
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null)
+            return false;
+
+        String current = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || opaque(candidate).equals(current))
+                return true;
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return new ResponseEntity<>(headers(etag), HttpStatus.NOT_MODIFIED);
+    }
+
+    static <T> ResponseEntity<T> ok(T body, String etag) {
+        return new ResponseEntity<>(body, headers(etag), HttpStatus.OK);
+    }
+
+    static HttpHeaders headers(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null)
+            headers.setETag(etag);
+        return headers;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,95 @@
+package controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import search.CommodityOrderIndex;
+import search.Page;
+import search.SortKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static defines.Errors.*;
+
+// Parameters and streamed body of the paginated listings; bad parameters throw IllegalArgumentException.
+class Pages {
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private Pages() {
+    }
+
+    static CommodityOrderIndex.Sort sort(String value) {
+        if (value == null)
+            return CommodityOrderIndex.Sort.ID;
+        try {
+            return CommodityOrderIndex.Sort.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(INVALID_SORT_OPTION);
+        }
+    }
+
+    static boolean descending(String order) {
+        if (order == null || order.equals("asc"))
+            return false;
+        if (order.equals("desc"))
+            return true;
+        throw new IllegalArgumentException(INVALID_SORT_ORDER);
+    }
+
+    static int limit(String value) {
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit >= 1 && limit <= MAX_PAGE_SIZE)
+                return limit;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(INVALID_PAGE_SIZE);
+    }
+
+    // listing names the order the cursor was handed out for.
+    static SortKey cursor(String cursor, String listing) {
+        if (cursor == null)
+            return null;
+        try {
+            return SortKey.decode(cursor, listing);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+    }
+
+    // Items are written with the application's mapper, so they look the same as in the unpaged listings.
+    static <T> ResponseEntity<StreamingResponseBody> ok(ObjectMapper objectMapper, Page<T> page, String listing,
+                                                        String etag) {
+        HttpHeaders headers = EntityTags.headers(etag);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String nextCursor = page.next() == null ? null : page.next().encode(listing);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = writer.createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("items");
+                for (T item : page.items())
+                    writer.writeValue(generator, item);
+                generator.writeEndArray();
+                generator.writeStringField("nextCursor", nextCursor);
+                generator.writeEndObject();
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    static ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        StreamingResponseBody body = out -> out.write(message.getBytes(StandardCharsets.UTF_8));
+        return new ResponseEntity<>(body, headers, HttpStatus.BAD_REQUEST);
+    }
+}
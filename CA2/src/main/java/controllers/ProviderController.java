@@ -3,35 +3,82 @@ package controllers;
 import exceptions.NotExistentProvider;
 import model.Commodity;
 import model.Provider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import search.CommodityOrderIndex;
+import search.Page;
 import service.Baloot;
 
 import java.util.ArrayList;
 
 @RestController
 public class ProviderController {
-    private Baloot baloot = Baloot.getInstance();
+    private Baloot baloot;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ProviderController(ObjectMapper objectMapper) {
+        this(Baloot.getInstance(), objectMapper);
+    }
+
+    ProviderController(Baloot baloot, ObjectMapper objectMapper) {
+        this.baloot = baloot;
+        this.objectMapper = objectMapper;
+    }
 
     public void setBaloot(Baloot baloot) {
         this.baloot = baloot;
     }
     @GetMapping(value = "/providers/{id}")
-    public ResponseEntity<Provider> getProvider(@PathVariable String id) {
+    public ResponseEntity<Provider> getProvider(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = baloot.getProviderEtag(id);
+        if (EntityTags.matches(ifNoneMatch, etag))
+            return EntityTags.notModified(etag);
         try {
             Provider provider = baloot.getProviderById(id);
-            return new ResponseEntity<>(provider, HttpStatus.OK);
+            return EntityTags.ok(provider, etag);
         } catch (NotExistentProvider e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
 
     @GetMapping(value = "/providers/{id}/commodities")
-    public ResponseEntity<ArrayList<Commodity>> getProvidedCommodities(@PathVariable String id) {
+    public ResponseEntity<ArrayList<Commodity>> getProvidedCommodities(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = baloot.getProviderCommoditiesEtag(id);
+        if (EntityTags.matches(ifNoneMatch, etag))
+            return EntityTags.notModified(etag);
         ArrayList<Commodity> commodities = baloot.getCommoditiesProvidedByProvider(id);
-        return new ResponseEntity<>(commodities, HttpStatus.OK);
+        return EntityTags.ok(commodities, etag);
+    }
+
+    @GetMapping(value = "/providers/{id}/commodities", params = "limit")
+    public ResponseEntity<StreamingResponseBody> getProvidedCommoditiesPage(@PathVariable String id,
+            @RequestParam(required = false) String sort, @RequestParam(required = false) String order,
+            @RequestParam(required = false) String cursor, @RequestParam String limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            CommodityOrderIndex.Sort sortBy = Pages.sort(sort);
+            boolean descending = Pages.descending(order);
+            int pageSize = Pages.limit(limit);
+            String etag = baloot.getProviderCommoditiesEtag(id);
+            if (EntityTags.matches(ifNoneMatch, etag))
+                return EntityTags.notModified(etag);
+            Page<Commodity> page = baloot.getProviderCommoditiesPage(id, sortBy, descending,
+                    Pages.cursor(cursor, sortBy.name()), pageSize);
+            return Pages.ok(objectMapper, page, sortBy.name(), etag);
+        } catch (IllegalArgumentException e) {
+            return Pages.badRequest(e.getMessage());
+        }
     }
 }
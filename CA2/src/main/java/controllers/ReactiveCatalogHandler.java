@@ -0,0 +1,158 @@
+package controllers;
+
+import database.StorageConfig;
+import exceptions.NotExistentCommodity;
+import exceptions.NotExistentProvider;
+import model.Comment;
+import model.Commodity;
+import model.Provider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import search.CommodityOrderIndex;
+import search.Page;
+import search.SortKey;
+import service.Baloot;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+// Non-blocking mirror of the servlet read endpoints, streaming listings as a Flux.
+public class ReactiveCatalogHandler {
+    private static final int PAGE_SIZE = 256;
+
+    private Baloot baloot;
+    private final Scheduler readScheduler;
+
+    public ReactiveCatalogHandler() {
+        this(Baloot.getInstance(),
+                StorageConfig.readsMayBlock() ? Schedulers.boundedElastic() : Schedulers.immediate());
+    }
+
+    ReactiveCatalogHandler(Baloot baloot, Scheduler readScheduler) {
+        this.baloot = baloot;
+        this.readScheduler = readScheduler;
+    }
+
+    public void setBaloot(Baloot baloot) {
+        this.baloot = baloot;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return route(GET("/commodities"), this::getCommodities)
+                .andRoute(GET("/commodities/{id}"), this::getCommodity)
+                .andRoute(GET("/commodities/{id}/comment"), this::getCommodityComment)
+                .andRoute(GET("/providers/{id}"), this::getProvider)
+                .andRoute(GET("/providers/{id}/commodities"), this::getProvidedCommodities);
+    }
+
+    public Mono<ServerResponse> getCommodities(ServerRequest request) {
+        return stream(request, () -> baloot.getCommoditiesEtag(),
+                after -> baloot.getCommoditiesPage(CommodityOrderIndex.Sort.ID, false, after, PAGE_SIZE),
+                Commodity.class);
+    }
+
+    public Mono<ServerResponse> getCommodity(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return read(() -> {
+            String etag = baloot.getCommodityEtag(id);
+            if (EntityTags.matches(ifNoneMatch(request), etag))
+                return notModified(etag);
+            try {
+                Commodity commodity = baloot.getCommodityById(id);
+                return ok(etag).contentType(MediaType.APPLICATION_JSON).bodyValue(commodity);
+            } catch (NotExistentCommodity e) {
+                return ServerResponse.notFound().build();
+            }
+        });
+    }
+
+    public Mono<ServerResponse> getCommodityComment(ServerRequest request) {
+        int commodityId;
+        try {
+            commodityId = Integer.parseInt(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return stream(request, () -> baloot.getCommentsEtag(commodityId),
+                after -> baloot.getCommentsPage(commodityId, after, PAGE_SIZE), Comment.class);
+    }
+
+    public Mono<ServerResponse> getProvider(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return read(() -> {
+            String etag = baloot.getProviderEtag(id);
+            if (EntityTags.matches(ifNoneMatch(request), etag))
+                return notModified(etag);
+            try {
+                Provider provider = baloot.getProviderById(id);
+                return ok(etag).contentType(MediaType.APPLICATION_JSON).bodyValue(provider);
+            } catch (NotExistentProvider e) {
+                return ServerResponse.notFound().build();
+            }
+        });
+    }
+
+    public Mono<ServerResponse> getProvidedCommodities(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return stream(request, () -> baloot.getProviderCommoditiesEtag(id),
+                after -> baloot.getProviderCommoditiesPage(id, CommodityOrderIndex.Sort.ID, false, after, PAGE_SIZE),
+                Commodity.class);
+    }
+
+    // The tag is read before the listing, as the servlet endpoints do, so it is never newer than what is sent.
+    // The listing is read a page at a time from its order index, the next page only once the previous one has
+    // been sent, so at most a page or two is held for a slow client.
+    private <T> Mono<ServerResponse> stream(ServerRequest request, Supplier<String> etagSupplier,
+                                            Function<SortKey, Page<T>> pageAfter, Class<T> type) {
+        return read(() -> {
+            String etag = etagSupplier.get();
+            if (EntityTags.matches(ifNoneMatch(request), etag))
+                return notModified(etag);
+            Flux<T> items = readPage(pageAfter, null)
+                    .expand(page -> page.next() == null ? Mono.empty() : readPage(pageAfter, page.next()))
+                    .concatMapIterable(Page::items, 1);
+            return ok(etag).contentType(listingType(request)).body(items, type);
+        });
+    }
+
+    private <T> Mono<Page<T>> readPage(Function<SortKey, Page<T>> pageAfter, SortKey after) {
+        return Mono.fromSupplier(() -> pageAfter.apply(after)).subscribeOn(readScheduler);
+    }
+
+    private Mono<ServerResponse> read(Supplier<Mono<ServerResponse>> handler) {
+        return Mono.defer(handler).subscribeOn(readScheduler);
+    }
+
+    private static MediaType listingType(ServerRequest request) {
+        for (MediaType accepted : request.headers().accept())
+            if (accepted.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON))
+                return MediaType.APPLICATION_NDJSON;
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private static String ifNoneMatch(ServerRequest request) {
+        List<String> values = request.headers().header(HttpHeaders.IF_NONE_MATCH);
+        return values.isEmpty() ? null : String.join(",", values);
+    }
+
+    private static ServerResponse.BodyBuilder ok(String etag) {
+        return ServerResponse.ok().headers(headers -> headers.addAll(EntityTags.headers(etag)));
+    }
+
+    private static Mono<ServerResponse> notModified(String etag) {
+        return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                .headers(headers -> headers.addAll(EntityTags.headers(etag))).build();
+    }
+}
@@ -0,0 +1,39 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+// Serves ReactiveCatalogHandler on Reactor Netty when -Dbaloot.reactive.port is set.
+@Component
+@ConditionalOnProperty(name = "baloot.reactive.port")
+public class ReactiveCatalogServer {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCatalogServer.class);
+
+    private final DisposableServer server;
+
+    public ReactiveCatalogServer(@Value("${baloot.reactive.port}") int port, ObjectMapper objectMapper) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        HttpHandler handler = RouterFunctions.toHttpHandler(new ReactiveCatalogHandler().routes(), strategies);
+        server = HttpServer.create().port(port).handle(new ReactorHttpHandlerAdapter(handler)).bindNow();
+        logger.info("Reactive catalog endpoints listening on port {}", server.port());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        server.disposeNow();
+    }
+}
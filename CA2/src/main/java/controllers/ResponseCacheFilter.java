@@ -0,0 +1,76 @@
+package controllers;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import service.Baloot;
+import service.ResponseCache;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+// Serves the cacheable read endpoints from the response cache, keyed as Baloot invalidates them.
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    private static final Pattern CACHEABLE_PATH = Pattern.compile(
+            "/commodities" +
+            "|/commodities/(?!filter$)[A-Za-z0-9_-]+" +
+            "|/commodities/(0|[1-9][0-9]{0,8})/comment" +
+            "|/providers/[A-Za-z0-9_-]+" +
+            "|/providers/[A-Za-z0-9_-]+/commodities");
+
+    private Baloot baloot;
+
+    public ResponseCacheFilter() {
+        this(Baloot.getInstance());
+    }
+
+    ResponseCacheFilter(Baloot baloot) {
+        this.baloot = baloot;
+    }
+
+    public void setBaloot(Baloot baloot) {
+        this.baloot = baloot;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getMethod().equals("GET") || request.getQueryString() != null
+                || !CACHEABLE_PATH.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ResponseCache cache = baloot.getResponseCache();
+        String key = request.getRequestURI();
+        ResponseCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            if (cached.etag() != null)
+                response.setHeader(HttpHeaders.ETAG, cached.etag());
+            if (EntityTags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return;
+            }
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        long stamp = cache.stamp(key);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpStatus.OK.value())
+            cache.put(key, stamp, wrapper.getHeader(HttpHeaders.ETAG), wrapper.getContentAsByteArray());
+        wrapper.copyBodyToResponse();
+    }
+}
@@ -0,0 +1,36 @@
+package controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import service.Baloot;
+
+import java.util.Map;
+
+@RestController
+public class StatusController {
+    private Baloot baloot;
+
+    public StatusController() {
+        this(Baloot.getInstance());
+    }
+
+    StatusController(Baloot baloot) {
+        this.baloot = baloot;
+    }
+
+    public void setBaloot(Baloot baloot) {
+        this.baloot = baloot;
+    }
+
+    @GetMapping(value = "/status/startup")
+    public ResponseEntity<Map<String, Long>> getStartupTimings() {
+        return new ResponseEntity<>(baloot.getStartupTimings(), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/status/cache")
+    public ResponseEntity<Map<String, Long>> getCacheStats() {
+        return new ResponseEntity<>(baloot.getResponseCache().getStats(), HttpStatus.OK);
+    }
+}
@@ -12,7 +12,15 @@ import java.util.Map;
 
 @RestController
 public class UserController {
-    private Baloot baloot = Baloot.getInstance();
+    private Baloot baloot;
+
+    public UserController() {
+        this(Baloot.getInstance());
+    }
+
+    UserController(Baloot baloot) {
+        this.baloot = baloot;
+    }
 
     public void setBaloot(Baloot baloot) {
         this.baloot = baloot;
@@ -31,7 +39,9 @@ public class UserController {
     public ResponseEntity<String> addCredit(@PathVariable String id, @RequestBody Map<String, String> input) {
         try {
             float credit = Float.parseFloat(input.get("credit"));
-            baloot.getUserById(id).addCredit(credit);
+            User user = baloot.getUserById(id);
+            User.validateCreditAmount(credit);
+            baloot.addCredit(user, credit);
             return new ResponseEntity<>("credit added successfully!", HttpStatus.OK);
         } catch (InvalidCreditRange e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -0,0 +1,61 @@
+package controllers;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs Tomcat requests on virtual threads when -Dbaloot.web.virtual-threads=true and the JDK has them.
+@Configuration
+@ConditionalOnProperty(name = "baloot.web.virtual-threads", havingValue = "true")
+public class VirtualThreadConfiguration implements WebMvcConfigurer {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (executor != null)
+                protocolHandler.setExecutor(executor);
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (executor != null)
+            configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            logger.info("Handling requests on virtual threads");
+            return executor;
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            logger.warn("Virtual threads are not available on Java {}; handling requests on Tomcat's thread pool",
+                    Runtime.version().feature());
+        } catch (InvocationTargetException e) {
+            logger.warn("Virtual threads could not be started ({}); handling requests on Tomcat's thread pool",
+                    e.getCause().toString());
+        }
+        return null;
+    }
+}
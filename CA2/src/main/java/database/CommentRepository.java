@@ -0,0 +1,26 @@
+package database;
+
+import model.Comment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface CommentRepository {
+    Comment findById(int commentId);
+
+    List<Comment> findByCommodity(int commodityId);
+
+    void insert(Comment comment);
+
+    // Persists changes made in place to a comment obtained from this repository.
+    void update(Comment comment);
+
+    void replaceAll(ArrayList<Comment> comments);
+
+    ArrayList<Comment> findAll();
+
+    void forEach(Consumer<? super Comment> action);
+
+    int count();
+}
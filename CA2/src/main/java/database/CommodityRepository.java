@@ -0,0 +1,28 @@
+package database;
+
+import model.Commodity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface CommodityRepository {
+    Commodity findById(String commodityId);
+
+    List<Commodity> findByProvider(String providerId);
+
+    List<Commodity> findByCategory(String category);
+
+    void insert(Commodity commodity);
+
+    // Persists changes made in place to a commodity obtained from this repository.
+    void update(Commodity commodity);
+
+    void replaceAll(ArrayList<Commodity> commodities);
+
+    ArrayList<Commodity> findAll();
+
+    void forEach(Consumer<? super Commodity> action);
+
+    int count();
+}
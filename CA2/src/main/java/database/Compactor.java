@@ -0,0 +1,170 @@
+package database;
+
+import model.Comment;
+import model.Commodity;
+import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Folds the write-ahead log into a snapshot or backend checkpoint without stopping writers.
+public class Compactor implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(Compactor.class);
+
+    private final Supplier<DataSet> liveData;
+    private final PersistentStorage storage;
+    private final WriteAheadLog writeAheadLog;
+    private final Path snapshotFile;
+    private final ReentrantReadWriteLock barrier = new ReentrantReadWriteLock();
+    private final Guard guard = new Guard();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Map<Object, Object> captured;
+    private long snapshotSequence;
+
+    public Compactor(Supplier<DataSet> liveData, WriteAheadLog writeAheadLog, Path snapshotFile,
+                     long snapshotSequence) {
+        this.liveData = liveData;
+        this.storage = null;
+        this.writeAheadLog = writeAheadLog;
+        this.snapshotFile = snapshotFile;
+        this.snapshotSequence = snapshotSequence;
+    }
+
+    public Compactor(PersistentStorage storage, WriteAheadLog writeAheadLog, long checkpointSequence) {
+        this.liveData = null;
+        this.storage = storage;
+        this.writeAheadLog = writeAheadLog;
+        this.snapshotFile = null;
+        this.snapshotSequence = checkpointSequence;
+    }
+
+    public class Guard implements AutoCloseable {
+        private Guard() {
+        }
+
+        // Must be called, holding the entity's lock, before the entity is changed.
+        public void preserve(Object entity) {
+            Map<Object, Object> capture = captured;
+            if (capture != null)
+                synchronized (entity) {
+                    capture.computeIfAbsent(entity, Compactor::copy);
+                }
+        }
+
+        @Override
+        public void close() {
+            barrier.readLock().unlock();
+        }
+    }
+
+    // Entered around applying and logging a mutation, after taking the locks of the entities it changes.
+    public Guard guard() {
+        barrier.readLock().lock();
+        return guard;
+    }
+
+    public void start(Duration interval) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Write-ahead log compaction failed", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Returns false when nothing has been logged since the last snapshot.
+    public synchronized boolean compact() throws IOException {
+        if (writeAheadLog.lastSequence() == snapshotSequence)
+            return false;
+
+        long start = System.nanoTime();
+        long sequence = storage == null ? writeSnapshot() : checkpointStorage();
+        writeAheadLog.deleteSegmentsThrough(sequence);
+        snapshotSequence = sequence;
+        logger.info("Compacted write-ahead log through sequence {} in {} ms", sequence,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return true;
+    }
+
+    private long writeSnapshot() throws IOException {
+        Map<Object, Object> capture = new ConcurrentHashMap<>();
+        DataSet live;
+        CompletableFuture<Long> rotation;
+        barrier.writeLock().lock();
+        try {
+            live = liveData.get();
+            rotation = writeAheadLog.rotate();
+            captured = capture;
+        } finally {
+            barrier.writeLock().unlock();
+        }
+
+        DataSet copies;
+        try {
+            copies = new DataSet(resolve(live.users(), capture), live.providers(),
+                    resolve(live.commodities(), capture), resolve(live.comments(), capture));
+        } finally {
+            captured = null;
+        }
+
+        long sequence = rotation.join();
+        SnapshotCodec.write(snapshotFile, copies, sequence);
+        return sequence;
+    }
+
+    private long checkpointStorage() throws IOException {
+        CompletableFuture<Long> rotation;
+        barrier.writeLock().lock();
+        try {
+            rotation = writeAheadLog.rotate();
+            storage.checkpoint(writeAheadLog.lastSequence());
+        } finally {
+            barrier.writeLock().unlock();
+        }
+        return rotation.join();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArrayList<T> resolve(List<T> entities, Map<Object, Object> capture) {
+        ArrayList<T> copies = new ArrayList<>(entities.size());
+        for (T entity : entities)
+            synchronized (entity) {
+                copies.add((T) capture.computeIfAbsent(entity, Compactor::copy));
+            }
+        return copies;
+    }
+
+    private static Object copy(Object entity) {
+        if (entity instanceof User user)
+            return user.copy();
+        if (entity instanceof Commodity commodity)
+            return commodity.copy();
+        if (entity instanceof Comment comment)
+            return comment.copy();
+        throw new IllegalArgumentException("Cannot copy " + entity.getClass().getName());
+    }
+}
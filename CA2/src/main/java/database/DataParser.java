@@ -1,64 +1,85 @@
 package database;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import model.Comment;
 import model.Commodity;
 import model.Provider;
 import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.attribute.FileTime;
+import java.util.function.Consumer;
 
 
 public class DataParser {
+    private static final Logger logger = LoggerFactory.getLogger(DataParser.class);
+    private static final long PROGRESS_INTERVAL = 100_000;
+    private static final String[] DATA_FILES = {"users.json", "providers.json", "commodities.json", "comments.json"};
+    private static final String DEFAULT_DATA_PATH = "src/main/java/database/data/";
+
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final String dataPath = "src/main/java/database/data/";
-    Database database;
+    private final String dataPath;
 
-    public DataParser(Database database) {
-        this.database = database;
+    public DataParser() {
+        this(DEFAULT_DATA_PATH);
     }
 
-    public void getUsersList() throws IOException {
-        String filePath = dataPath + "users.json";
-        String usersString = new String(Files.readAllBytes(Paths.get(filePath)));
+    public DataParser(String dataPath) {
+        this.dataPath = dataPath;
+    }
 
-        List<User> userList = objectMapper.readValue(usersString, new TypeReference<>() {
-        });
-        database.setUsers((ArrayList<User>) userList);
+    public FileTime lastModified() throws IOException {
+        FileTime lastModified = FileTime.fromMillis(0);
+        for (String fileName : DATA_FILES) {
+            FileTime fileTime = Files.getLastModifiedTime(Paths.get(dataPath + fileName));
+            if (fileTime.compareTo(lastModified) > 0)
+                lastModified = fileTime;
+        }
+        return lastModified;
     }
 
-    public void getProvidersList() throws IOException {
-        String filePath = dataPath + "providers.json";
-        String providersString = new String(Files.readAllBytes(Paths.get(filePath)));
+    public long streamUsers(Consumer<User> sink) throws IOException {
+        return streamRecords("users.json", User.class, sink);
+    }
 
-        List<Provider> providerList = objectMapper.readValue(providersString, new TypeReference<>() {
-        });
-        database.setProviders((ArrayList<Provider>) providerList);
+    public long streamProviders(Consumer<Provider> sink) throws IOException {
+        return streamRecords("providers.json", Provider.class, sink);
     }
 
-    public void getCommoditiesList() throws IOException {
-        String filePath = dataPath + "commodities.json";
-        String commoditiesString = new String(Files.readAllBytes(Paths.get(filePath)));
+    public long streamCommodities(Consumer<Commodity> sink) throws IOException {
+        return streamRecords("commodities.json", Commodity.class, sink);
+    }
 
-        List<Commodity> commodityList = objectMapper.readValue(commoditiesString, new TypeReference<>() {
+    public long streamComments(Consumer<Comment> sink) throws IOException {
+        int[] nextId = {0};
+        return streamRecords("comments.json", Comment.class, comment -> {
+            comment.setId(nextId[0]++);
+            sink.accept(comment);
         });
-        database.setCommodities((ArrayList<Commodity>) commodityList);
     }
 
-    public void getCommentsList() throws IOException {
-        String filePath = dataPath + "comments.json";
-        String commentsString = new String(Files.readAllBytes(Paths.get(filePath)));
+    private <T> long streamRecords(String fileName, Class<T> type, Consumer<T> sink) throws IOException {
+        long count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(new File(dataPath + fileName))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
+                throw new IOException(fileName + " must contain a JSON array");
 
-        List<Comment> commentsList = objectMapper.readValue(commentsString, new TypeReference<>() {
-        });
-        database.setComments((ArrayList<Comment>) commentsList);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(objectMapper.readValue(parser, type));
+                count += 1;
+                if (count % PROGRESS_INTERVAL == 0)
+                    logger.info("Loaded {} records from {}", count, fileName);
+            }
+        }
 
-        for (Comment comment : commentsList)
-            comment.setId(commentsList.indexOf(comment));
+        logger.info("Finished loading {} records from {}", count, fileName);
+        return count;
     }
 }
@@ -0,0 +1,12 @@
+package database;
+
+import model.Comment;
+import model.Commodity;
+import model.Provider;
+import model.User;
+
+import java.util.ArrayList;
+
+public record DataSet(ArrayList<User> users, ArrayList<Provider> providers,
+                      ArrayList<Commodity> commodities, ArrayList<Comment> comments) {
+}
@@ -5,37 +5,305 @@ import model.Commodity;
 import model.Provider;
 import model.User;
 import lombok.Getter;
-import lombok.Setter;
+import search.CommentOrderIndex;
+import search.CommodityFacetIndex;
+import search.CommodityFilter;
+import search.CommodityOrderIndex;
+import search.CommoditySearchIndex;
+import search.Page;
+import search.SortKey;
+import utils.Ordinals;
+import utils.RoaringBitmap;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-@Getter
-@Setter
 public class Database {
     @Getter
     private static final Database instance = new Database();
 
+    @Getter
+    private final StorageBackend storage;
+    @Getter
+    private final CommoditySearchIndex searchIndex;
+    @Getter
+    private final CommodityOrderIndex orderIndex = new CommodityOrderIndex();
+    private final Map<Integer, CommodityOrderIndex> providerOrderIndexes = new ConcurrentHashMap<>();
+    private final CommentOrderIndex commentOrderIndex = new CommentOrderIndex();
+    private final CommodityFacetIndex facetIndex = new CommodityFacetIndex();
+    @Getter
+    private final EntityVersions versions = new EntityVersions();
+    private final IdGenerator commentIds = new IdGenerator(StorageConfig.storageDirectory().resolve("comment-ids"));
+
     private Database() {
+        try {
+            storage = StorageConfig.openStorageBackend();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        searchIndex = new CommoditySearchIndex(this::getCommodity);
+        storage.commodities().forEach(commodity -> {
+            searchIndex.add(commodity);
+            addToOrders(commodity);
+            facetIndex.add(commodity);
+            versions.commodityChanged(commodity);
+        });
+        storage.providers().forEach(versions::providerChanged);
+        storage.comments().forEach(comment -> {
+            commentIds.advancePast(comment.getId());
+            commentOrderIndex.add(comment);
+        });
+    }
+
+    public synchronized void load(DataSet dataSet) {
+        setUsers(dataSet.users());
+        setProviders(dataSet.providers());
+        setCommodities(dataSet.commodities());
+        setComments(dataSet.comments());
+    }
+
+    public synchronized void clear() {
+        load(new DataSet(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+    }
+
+    public synchronized DataSet snapshot() {
+        return new DataSet(new ArrayList<>(getUsers()), new ArrayList<>(getProviders()),
+                new ArrayList<>(getCommodities()), new ArrayList<>(getComments()));
+    }
+
+    public void writeSnapshot(Path file) throws IOException {
+        SnapshotCodec.write(file, snapshot());
+    }
+
+    public synchronized void setUsers(ArrayList<User> users) {
+        storage.users().replaceAll(users);
+        for (User user : users)
+            Ordinals.USERNAMES.intern(user.getUsername());
+    }
+
+    public synchronized void setProviders(ArrayList<Provider> providers) {
+        versions.providersReplaced();
+        storage.providers().replaceAll(providers);
+        providers.forEach(versions::providerChanged);
+    }
+
+    public synchronized void setCommodities(ArrayList<Commodity> commodities) {
+        versions.commoditiesReplaced();
+        storage.commodities().replaceAll(commodities);
+        searchIndex.clear();
+        orderIndex.clear();
+        providerOrderIndexes.clear();
+        facetIndex.clear();
+        for (Commodity commodity : commodities) {
+            searchIndex.add(commodity);
+            addToOrders(commodity);
+            facetIndex.add(commodity);
+            versions.commodityChanged(commodity);
+        }
+    }
+
+    public synchronized void setComments(ArrayList<Comment> comments) {
+        versions.commentsReplaced();
+        storage.comments().replaceAll(comments);
+        commentOrderIndex.clear();
+        for (Comment comment : comments) {
+            commentIds.advancePast(comment.getId());
+            commentOrderIndex.add(comment);
+        }
+    }
+
+    public ArrayList<User> getUsers() {
+        return storage.users().findAll();
+    }
+
+    public ArrayList<Provider> getProviders() {
+        return storage.providers().findAll();
+    }
+
+    public ArrayList<Commodity> getCommodities() {
+        return storage.commodities().findAll();
+    }
+
+    public ArrayList<Comment> getComments() {
+        return storage.comments().findAll();
+    }
+
+    public User getUser(String username) {
+        return storage.users().findByUsername(username);
+    }
+
+    public Provider getProvider(String providerId) {
+        return storage.providers().findById(providerId);
+    }
+
+    public Commodity getCommodity(String commodityId) {
+        return storage.commodities().findById(commodityId);
     }
 
-    private ArrayList<User> users = new ArrayList<>();
-    private ArrayList<Provider> providers = new ArrayList<>();
-    private ArrayList<Commodity> commodities = new ArrayList<>();
-    private ArrayList<Comment> comments = new ArrayList<>();
+    public Comment getComment(int commentId) {
+        return storage.comments().findById(commentId);
+    }
+
+    public int nextCommentId() {
+        return commentIds.nextId();
+    }
+
+    public String getProviderIdByName(String providerName) {
+        return storage.providers().findIdByName(providerName);
+    }
+
+    public List<Commodity> getCommoditiesByProvider(String providerId) {
+        return storage.commodities().findByProvider(providerId);
+    }
+
+    public List<Commodity> getCommoditiesByCategory(String category) {
+        return storage.commodities().findByCategory(category);
+    }
+
+    // A single category or provider is answered from the storage's list for it, which already holds the
+    // commodities; combined facets are intersected as bitmaps first, which only pays off once there is something
+    // to intersect, since each matching ordinal has to be resolved back to its commodity. The rating facet is
+    // checked on what remains, or, when it is the only facet, read from the rating order.
+    public List<Commodity> filterCommodities(CommodityFilter filter) {
+        if (!filter.hasPriceRange()) {
+            if (filter.providerId() == null && filter.categories() != null && filter.categories().size() == 1)
+                return withMinRating(getCommoditiesByCategory(filter.categories().get(0)), filter.minRating());
+            if (filter.providerId() != null && filter.categories() == null)
+                return withMinRating(getCommoditiesByProvider(filter.providerId()), filter.minRating());
+        }
+
+        RoaringBitmap ordinals = facetIndex.match(filter);
+        List<Commodity> result = new ArrayList<>();
+        if (ordinals == null) {
+            if (filter.minRating() == null)
+                throw new IllegalArgumentException("A filter needs at least one facet");
+            for (String commodityId : orderIndex.atLeast(CommodityOrderIndex.Sort.RATING, filter.minRating())) {
+                Commodity commodity = getCommodity(commodityId);
+                if (commodity != null)
+                    result.add(commodity);
+            }
+            return result;
+        }
+
+        ordinals.forEach(ordinal -> {
+            Commodity commodity = getCommodity(Ordinals.COMMODITY_IDS.valueOf(ordinal));
+            if (commodity != null && (filter.minRating() == null || commodity.getRating() >= filter.minRating()))
+                result.add(commodity);
+        });
+        return result;
+    }
+
+    // Commodities that can rank among the `count` most similar to the given one: the highest rated overall and the
+    // highest rated sharing one of its categories. Only these are looked up.
+    public List<Commodity> similarityCandidates(Commodity commodity, int count) {
+        int[] categoryCodes = commodity.categoryCodes();
+        return resolve(orderIndex.highestRated(count, ordinal -> facetIndex.inAnyCategory(ordinal, categoryCodes)));
+    }
+
+    // Only the commodities the name terms point to are checked, unless the name has no letters or digits to look up.
+    public List<Commodity> filterCommoditiesByName(String name) {
+        Set<String> candidates = searchIndex.nameCandidates(name);
+        List<Commodity> result = new ArrayList<>();
+        for (Commodity commodity : candidates == null ? getCommodities() : resolve(candidates))
+            if (commodity.getName() != null && commodity.getName().contains(name))
+                result.add(commodity);
+        result.sort(Comparator.comparing(Commodity::getName).thenComparing(Commodity::getId));
+        return result;
+    }
+
+    public Page<Commodity> getProviderCommoditiesPage(String providerId, CommodityOrderIndex.Sort sort,
+                                                      boolean descending, SortKey after, int limit) {
+        CommodityOrderIndex providerOrder = providerId == null ? null
+                : providerOrderIndexes.get(Ordinals.PROVIDER_IDS.find(providerId));
+        if (providerOrder == null)
+            return new Page<>(List.of(), null);
+        return providerOrder.page(sort, descending, after, limit).map(this::getCommodity);
+    }
+
+    public Page<Comment> getCommentsPage(int commodityId, SortKey after, int limit) {
+        return commentOrderIndex.page(commodityId, after, limit).map(storage.comments()::findById);
+    }
+
+    private List<Commodity> resolve(Collection<String> commodityIds) {
+        List<Commodity> commodities = new ArrayList<>(commodityIds.size());
+        for (String commodityId : commodityIds) {
+            Commodity commodity = getCommodity(commodityId);
+            if (commodity != null)
+                commodities.add(commodity);
+        }
+        return commodities;
+    }
+
+    // The storage's list may be appended to meanwhile, so it is copied, which takes its lock, before it is walked.
+    private static List<Commodity> withMinRating(List<Commodity> commodities, Float minRating) {
+        List<Commodity> result = new ArrayList<>(commodities);
+        if (minRating != null)
+            result.removeIf(commodity -> commodity.getRating() < minRating);
+        return result;
+    }
+
+    public List<Comment> getCommentsByCommodity(int commodityId) {
+        return storage.comments().findByCommodity(commodityId);
+    }
+
+    public synchronized boolean addUser(User user) {
+        boolean added = storage.users().insert(user);
+        if (added)
+            Ordinals.USERNAMES.intern(user.getUsername());
+        return added;
+    }
+
+    public synchronized void addProvider(Provider provider) {
+        storage.providers().insert(provider);
+        versions.providerChanged(provider);
+    }
+
+    public synchronized void addCommodity(Commodity commodity) {
+        storage.commodities().insert(commodity);
+        searchIndex.add(commodity);
+        addToOrders(commodity);
+        facetIndex.add(commodity);
+        versions.commodityChanged(commodity);
+    }
+
+    public synchronized void addComment(Comment comment) {
+        commentIds.advancePast(comment.getId());
+        storage.comments().insert(comment);
+        commentOrderIndex.add(comment);
+        versions.commentChanged(comment);
+    }
 
-    public void addUser(User user) {
-        users.add(user);
+    // The update methods persist changes made in place to records obtained from this database; they must be
+    // called while the record's lock is still held.
+    public void updateUser(User user) {
+        storage.users().update(user);
     }
 
-    public void addProvider(Provider provider) {
-        providers.add(provider);
+    public void updateCommodity(Commodity commodity) {
+        storage.commodities().update(commodity);
+        addToOrders(commodity);
+        facetIndex.add(commodity);
+        versions.commodityChanged(commodity);
     }
 
-    public void addCommodity(Commodity commodity) {
-        commodities.add(commodity);
+    public void updateComment(Comment comment) {
+        storage.comments().update(comment);
+        versions.commentChanged(comment);
     }
 
-    public void addComment(Comment comment) {
-        comments.add(comment);
+    // A commodity's provider is taken to stay as it was when it was first added.
+    private void addToOrders(Commodity commodity) {
+        orderIndex.add(commodity);
+        if (commodity.providerCode() != 0)
+            providerOrderIndexes.computeIfAbsent(commodity.providerCode(), code -> new CommodityOrderIndex())
+                    .add(commodity);
     }
 }
@@ -0,0 +1,580 @@
+package database;
+
+import model.Comment;
+import model.Commodity;
+import model.Provider;
+import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.Ordinals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Keeps records in one key-value file per repository, checkpointed against the write-ahead log.
+public class DiskStorage implements PersistentStorage {
+    private static final Logger logger = LoggerFactory.getLogger(DiskStorage.class);
+    private static final String CHECKPOINT_FILE_NAME = "checkpoint";
+    private static final String[] STORE_NAMES = {"users", "providers", "commodities", "comments"};
+
+    private final Path directory;
+    private final KeyValueStore[] stores = new KeyValueStore[STORE_NAMES.length];
+    private final Users users;
+    private final Providers providers;
+    private final Commodities commodities;
+    private final Comments comments;
+    // Locks here and in the repositories are held across file I/O, so they are not monitors that would pin a
+    // virtual thread's carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+    private long checkpointSequence;
+    private int generation;
+
+    public DiskStorage(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        Checkpoint checkpoint = readCheckpoint();
+        checkpointSequence = checkpoint.sequence();
+        generation = checkpoint.generation();
+        deleteOtherGenerations();
+        for (int i = 0; i < STORE_NAMES.length; i++)
+            stores[i] = new KeyValueStore(storeFile(STORE_NAMES[i], generation), checkpoint.lengths()[i]);
+
+        users = new Users(stores[0]);
+        providers = new Providers(stores[1]);
+        commodities = new Commodities(stores[2]);
+        comments = new Comments(stores[3]);
+
+        if (checkpointSequence >= 0 && mostlyGarbage())
+            rewrite();
+    }
+
+    private record Checkpoint(long sequence, int generation, long[] lengths) {
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public ProviderRepository providers() {
+        return providers;
+    }
+
+    @Override
+    public CommodityRepository commodities() {
+        return commodities;
+    }
+
+    @Override
+    public CommentRepository comments() {
+        return comments;
+    }
+
+    @Override
+    public long checkpointSequence() {
+        lock.lock();
+        try {
+            return checkpointSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void checkpoint(long sequence) throws IOException {
+        lock.lock();
+        try {
+            long[] lengths = new long[stores.length];
+            for (int i = 0; i < stores.length; i++)
+                lengths[i] = stores[i].sync();
+            writeCheckpoint(new Checkpoint(sequence, generation, lengths));
+            checkpointSequence = sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (KeyValueStore store : stores)
+            store.close();
+    }
+
+    private boolean mostlyGarbage() {
+        long garbage = 0;
+        long length = 0;
+        for (KeyValueStore store : stores) {
+            garbage += store.garbageBytes();
+            length += store.length();
+        }
+        return garbage > length / 2;
+    }
+
+    // Copies the latest value of every key into next-generation files, then switches the checkpoint to them.
+    private void rewrite() throws IOException {
+        int nextGeneration = generation + 1;
+        long[] lengths = new long[stores.length];
+        KeyValueStore[] rewritten = new KeyValueStore[stores.length];
+        for (int i = 0; i < stores.length; i++) {
+            Path file = storeFile(STORE_NAMES[i], nextGeneration);
+            Files.deleteIfExists(file);
+            rewritten[i] = new KeyValueStore(file, 0);
+            for (String key : stores[i].keys())
+                rewritten[i].put(key, stores[i].get(key));
+            lengths[i] = rewritten[i].sync();
+        }
+        writeCheckpoint(new Checkpoint(checkpointSequence, nextGeneration, lengths));
+
+        for (int i = 0; i < stores.length; i++) {
+            stores[i].close();
+            Files.delete(stores[i].getFile());
+            stores[i] = rewritten[i];
+        }
+        users.store = stores[0];
+        providers.store = stores[1];
+        commodities.store = stores[2];
+        comments.store = stores[3];
+        generation = nextGeneration;
+        logger.info("Rewrote disk storage into generation {}", generation);
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE_NAME);
+        if (!Files.exists(file))
+            return new Checkpoint(-1, 0, new long[STORE_NAMES.length]);
+
+        String[] fields = Files.readString(file, StandardCharsets.UTF_8).trim().split(" ");
+        long[] lengths = new long[STORE_NAMES.length];
+        for (int i = 0; i < lengths.length; i++)
+            lengths[i] = Long.parseLong(fields[2 + i]);
+        return new Checkpoint(Long.parseLong(fields[0]), Integer.parseInt(fields[1]), lengths);
+    }
+
+    private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        StringBuilder line = new StringBuilder()
+                .append(checkpoint.sequence()).append(' ').append(checkpoint.generation());
+        for (long length : checkpoint.lengths())
+            line.append(' ').append(length);
+
+        Path file = directory.resolve(CHECKPOINT_FILE_NAME);
+        Path tempFile = file.resolveSibling(CHECKPOINT_FILE_NAME + ".tmp");
+        Files.writeString(tempFile, line.toString(), StandardCharsets.UTF_8);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteOtherGenerations() throws IOException {
+        String suffix = "." + generation + ".kv";
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".kv") && !name.endsWith(suffix))
+                    Files.delete(file);
+            }
+        }
+    }
+
+    private Path storeFile(String name, int generation) {
+        return directory.resolve(name + "." + generation + ".kv");
+    }
+
+    private static <I, K> List<K> appendTo(Map<I, List<K>> index, I key, K value) {
+        if (key == null)
+            return null;
+        List<K> keys = index.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()));
+        keys.add(value);
+        return keys;
+    }
+
+    private static class Users implements UserRepository {
+        private volatile KeyValueStore store;
+        private final LiveRecords<String, User> live = new LiveRecords<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Users(KeyValueStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public User findByUsername(String username) {
+            if (username == null)
+                return null;
+
+            return live.get(username, key -> {
+                byte[] bytes = store.get(key);
+                return bytes == null ? null : SnapshotCodec.decodeUser(bytes);
+            });
+        }
+
+        @Override
+        public boolean insert(User user) {
+            lock.lock();
+            try {
+                if (user.getUsername() == null || store.contains(user.getUsername()))
+                    return false;
+
+                store.put(user.getUsername(), SnapshotCodec.encodeUser(user));
+                live.put(user.getUsername(), user);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void update(User user) {
+            store.put(user.getUsername(), () -> SnapshotCodec.encodeUser(user));
+        }
+
+        @Override
+        public void replaceAll(ArrayList<User> users) {
+            lock.lock();
+            try {
+                clear(store);
+                live.clear();
+                for (User user : users)
+                    insert(user);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public ArrayList<User> findAll() {
+            return live.all(() -> {
+                ArrayList<User> all = new ArrayList<>(store.size());
+                forEach(all::add);
+                return all;
+            });
+        }
+
+        @Override
+        public void forEach(Consumer<? super User> action) {
+            for (String username : store.keys()) {
+                User user = findByUsername(username);
+                if (user != null)
+                    action.accept(user);
+            }
+        }
+
+        @Override
+        public int count() {
+            return store.size();
+        }
+    }
+
+    private static class Providers implements ProviderRepository {
+        private volatile KeyValueStore store;
+        private final LiveRecords<String, Provider> live = new LiveRecords<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, String> idsByName = new ConcurrentHashMap<>();
+
+        Providers(KeyValueStore store) {
+            this.store = store;
+            forEach(this::index);
+        }
+
+        @Override
+        public Provider findById(String providerId) {
+            if (providerId == null)
+                return null;
+
+            return live.get(providerId, key -> {
+                byte[] bytes = store.get(key);
+                return bytes == null ? null : SnapshotCodec.decodeProvider(bytes);
+            });
+        }
+
+        @Override
+        public String findIdByName(String providerName) {
+            return providerName == null ? null : idsByName.get(providerName);
+        }
+
+        @Override
+        public void insert(Provider provider) {
+            lock.lock();
+            try {
+                if (provider.getId() == null || store.contains(provider.getId()))
+                    return;
+
+                store.put(provider.getId(), SnapshotCodec.encodeProvider(provider));
+                live.put(provider.getId(), provider);
+                index(provider);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void replaceAll(ArrayList<Provider> providers) {
+            lock.lock();
+            try {
+                clear(store);
+                live.clear();
+                idsByName.clear();
+                for (Provider provider : providers)
+                    insert(provider);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public ArrayList<Provider> findAll() {
+            return live.all(() -> {
+                ArrayList<Provider> all = new ArrayList<>(store.size());
+                forEach(all::add);
+                return all;
+            });
+        }
+
+        @Override
+        public void forEach(Consumer<? super Provider> action) {
+            for (String providerId : store.keys()) {
+                Provider provider = findById(providerId);
+                if (provider != null)
+                    action.accept(provider);
+            }
+        }
+
+        @Override
+        public int count() {
+            return store.size();
+        }
+
+        private void index(Provider provider) {
+            if (provider.getName() != null)
+                idsByName.putIfAbsent(provider.getName(), provider.getId());
+        }
+    }
+
+    private static class Commodities implements CommodityRepository {
+        private volatile KeyValueStore store;
+        private final LiveRecords<String, Commodity> live = new LiveRecords<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Integer, List<String>> idsByProvider = new ConcurrentHashMap<>();
+        private final Map<Integer, List<String>> idsByCategory = new ConcurrentHashMap<>();
+
+        Commodities(KeyValueStore store) {
+            this.store = store;
+            forEach(this::index);
+        }
+
+        @Override
+        public Commodity findById(String commodityId) {
+            if (commodityId == null)
+                return null;
+
+            return live.get(commodityId, key -> {
+                byte[] bytes = store.get(key);
+                return bytes == null ? null : SnapshotCodec.decodeCommodity(bytes);
+            });
+        }
+
+        @Override
+        public List<Commodity> findByProvider(String providerId) {
+            return providerId == null ? List.of()
+                    : resolve(idsByProvider.get(Ordinals.PROVIDER_IDS.find(providerId)));
+        }
+
+        @Override
+        public List<Commodity> findByCategory(String category) {
+            return category == null ? List.of()
+                    : resolve(idsByCategory.get(Ordinals.CATEGORIES.find(category)));
+        }
+
+        @Override
+        public void insert(Commodity commodity) {
+            lock.lock();
+            try {
+                if (commodity.getId() == null || store.contains(commodity.getId()))
+                    return;
+
+                store.put(commodity.getId(), SnapshotCodec.encodeCommodity(commodity));
+                live.put(commodity.getId(), commodity);
+                index(commodity);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void update(Commodity commodity) {
+            store.put(commodity.getId(), () -> SnapshotCodec.encodeCommodity(commodity));
+        }
+
+        @Override
+        public void replaceAll(ArrayList<Commodity> commodities) {
+            lock.lock();
+            try {
+                clear(store);
+                live.clear();
+                idsByProvider.clear();
+                idsByCategory.clear();
+                for (Commodity commodity : commodities)
+                    insert(commodity);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public ArrayList<Commodity> findAll() {
+            return live.all(() -> {
+                ArrayList<Commodity> all = new ArrayList<>(store.size());
+                forEach(all::add);
+                return all;
+            });
+        }
+
+        @Override
+        public void forEach(Consumer<? super Commodity> action) {
+            for (String commodityId : store.keys()) {
+                Commodity commodity = findById(commodityId);
+                if (commodity != null)
+                    action.accept(commodity);
+            }
+        }
+
+        @Override
+        public int count() {
+            return store.size();
+        }
+
+        private void index(Commodity commodity) {
+            if (commodity.providerCode() != 0)
+                appendTo(idsByProvider, commodity.providerCode(), commodity.getId());
+            for (int category : commodity.categoryCodes())
+                if (category != 0)
+                    appendTo(idsByCategory, category, commodity.getId());
+        }
+
+        private List<Commodity> resolve(List<String> ids) {
+            if (ids == null)
+                return List.of();
+
+            List<Commodity> resolved = new ArrayList<>(ids.size());
+            for (String id : new ArrayList<>(ids)) {
+                Commodity commodity = findById(id);
+                if (commodity != null)
+                    resolved.add(commodity);
+            }
+            return resolved;
+        }
+    }
+
+    private static class Comments implements CommentRepository {
+        private volatile KeyValueStore store;
+        private final LiveRecords<Integer, Comment> live = new LiveRecords<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, List<Integer>> idsByCommodity = new ConcurrentHashMap<>();
+
+        Comments(KeyValueStore store) {
+            this.store = store;
+            forEach(this::index);
+        }
+
+        @Override
+        public Comment findById(int commentId) {
+            return live.get(commentId, key -> {
+                byte[] bytes = store.get(Integer.toString(key));
+                return bytes == null ? null : SnapshotCodec.decodeComment(bytes);
+            });
+        }
+
+        @Override
+        public List<Comment> findByCommodity(int commodityId) {
+            List<Integer> ids = idsByCommodity.get(Integer.toString(commodityId));
+            if (ids == null)
+                return List.of();
+
+            List<Comment> resolved = new ArrayList<>(ids.size());
+            for (int id : new ArrayList<>(ids)) {
+                Comment comment = findById(id);
+                if (comment != null)
+                    resolved.add(comment);
+            }
+            return resolved;
+        }
+
+        @Override
+        public void insert(Comment comment) {
+            lock.lock();
+            try {
+                String key = Integer.toString(comment.getId());
+                if (store.contains(key))
+                    return;
+
+                store.put(key, SnapshotCodec.encodeComment(comment));
+                live.put(comment.getId(), comment);
+                index(comment);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void update(Comment comment) {
+            store.put(Integer.toString(comment.getId()), () -> SnapshotCodec.encodeComment(comment));
+        }
+
+        @Override
+        public void replaceAll(ArrayList<Comment> comments) {
+            lock.lock();
+            try {
+                clear(store);
+                live.clear();
+                idsByCommodity.clear();
+                for (Comment comment : comments)
+                    insert(comment);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public ArrayList<Comment> findAll() {
+            return live.all(() -> {
+                ArrayList<Comment> all = new ArrayList<>(store.size());
+                forEach(all::add);
+                return all;
+            });
+        }
+
+        @Override
+        public void forEach(Consumer<? super Comment> action) {
+            for (String key : store.keys()) {
+                Comment comment = findById(Integer.parseInt(key));
+                if (comment != null)
+                    action.accept(comment);
+            }
+        }
+
+        @Override
+        public int count() {
+            return store.size();
+        }
+
+        private void index(Comment comment) {
+            appendTo(idsByCommodity, Integer.toString(comment.getCommodityId()), comment.getId());
+        }
+    }
+
+    private static void clear(KeyValueStore store) {
+        try {
+            store.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
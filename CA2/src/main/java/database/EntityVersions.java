@@ -0,0 +1,81 @@
+package database;
+
+import model.Comment;
+import model.Commodity;
+import model.Provider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version counters behind the ETags of the read endpoints.
+public class EntityVersions {
+    private volatile long epoch = newEpoch();
+    private final AtomicLong catalog = new AtomicLong();
+    private final Map<String, Long> commodities = new ConcurrentHashMap<>();
+    private final Map<String, Long> providers = new ConcurrentHashMap<>();
+    private final Map<String, Long> providerCatalogs = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> commentLists = new ConcurrentHashMap<>();
+
+    public String catalogTag() {
+        return tag(catalog.get());
+    }
+
+    public String commodityTag(String commodityId) {
+        Long version = commodities.get(commodityId);
+        return version == null ? null : tag(version);
+    }
+
+    public String providerTag(String providerId) {
+        Long version = providers.get(providerId);
+        return version == null ? null : tag(version);
+    }
+
+    public String providerCatalogTag(String providerId) {
+        return tag(providerCatalogs.getOrDefault(providerId, 0L));
+    }
+
+    public String commentsTag(int commodityId) {
+        return tag(commentLists.getOrDefault(commodityId, 0L));
+    }
+
+    // Called after the commodity was inserted or changed.
+    void commodityChanged(Commodity commodity) {
+        commodities.merge(commodity.getId(), 1L, Long::sum);
+        catalog.incrementAndGet();
+        if (commodity.getProviderId() != null)
+            providerCatalogs.merge(commodity.getProviderId(), 1L, Long::sum);
+    }
+
+    void providerChanged(Provider provider) {
+        providers.merge(provider.getId(), 1L, Long::sum);
+    }
+
+    void commentChanged(Comment comment) {
+        commentLists.merge(comment.getCommodityId(), 1L, Long::sum);
+    }
+
+    // Called before the commodities are replaced; the new ones are then reported through commodityChanged.
+    void commoditiesReplaced() {
+        epoch = newEpoch();
+        commodities.clear();
+    }
+
+    void providersReplaced() {
+        epoch = newEpoch();
+        providers.clear();
+    }
+
+    void commentsReplaced() {
+        epoch = newEpoch();
+    }
+
+    private String tag(long version) {
+        return "\"" + Long.toHexString(epoch) + "-" + version + "\"";
+    }
+
+    private static long newEpoch() {
+        return ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+    }
+}
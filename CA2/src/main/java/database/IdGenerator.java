@@ -0,0 +1,57 @@
+package database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hands out ids in blocks whose upper bound is persisted first, so ids stay unique across restarts.
+public class IdGenerator {
+    private static final int BLOCK_SIZE = 1000;
+
+    private final Path stateFile;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile int reservedUpTo;
+
+    public IdGenerator(Path stateFile) {
+        this.stateFile = stateFile;
+        try {
+            if (Files.exists(stateFile))
+                reservedUpTo = Integer.parseInt(Files.readString(stateFile, StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        next.set(reservedUpTo);
+    }
+
+    public int nextId() {
+        int id = next.getAndIncrement();
+        if (id >= reservedUpTo)
+            reserveThrough(id);
+
+        return id;
+    }
+
+    public void advancePast(int id) {
+        next.accumulateAndGet(id + 1, Math::max);
+    }
+
+    private synchronized void reserveThrough(int id) {
+        if (id < reservedUpTo)
+            return;
+
+        int newReservedUpTo = id + BLOCK_SIZE;
+        try {
+            Files.createDirectories(stateFile.toAbsolutePath().getParent());
+            Path tempFile = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            Files.writeString(tempFile, Integer.toString(newReservedUpTo), StandardCharsets.UTF_8);
+            Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        reservedUpTo = newReservedUpTo;
+    }
+}
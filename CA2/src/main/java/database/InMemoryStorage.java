@@ -0,0 +1,284 @@
+package database;
+
+import model.Comment;
+import model.Commodity;
+import model.Provider;
+import model.User;
+import utils.Ordinals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Keeps every record on the heap, indexed by primary key and by the secondary keys lookups use.
+public class InMemoryStorage implements StorageBackend {
+    private final Users users = new Users();
+    private final Providers providers = new Providers();
+    private final CommodityRepository commodities;
+    private final Comments comments = new Comments();
+
+    public InMemoryStorage() {
+        this(new Commodities());
+    }
+
+    public InMemoryStorage(CommodityRepository commodities) {
+        this.commodities = commodities;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public ProviderRepository providers() {
+        return providers;
+    }
+
+    @Override
+    public CommodityRepository commodities() {
+        return commodities;
+    }
+
+    @Override
+    public CommentRepository comments() {
+        return comments;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static class Users implements UserRepository {
+        private ArrayList<User> all = new ArrayList<>();
+        private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+
+        @Override
+        public User findByUsername(String username) {
+            return username == null ? null : byUsername.get(username);
+        }
+
+        @Override
+        public synchronized boolean insert(User user) {
+            if (user.getUsername() != null && byUsername.putIfAbsent(user.getUsername(), user) != null)
+                return false;
+
+            all.add(user);
+            return true;
+        }
+
+        @Override
+        public void update(User user) {
+        }
+
+        @Override
+        public synchronized void replaceAll(ArrayList<User> users) {
+            all = users;
+            byUsername.clear();
+            for (User user : users)
+                putIfAbsent(byUsername, user.getUsername(), user);
+        }
+
+        @Override
+        public ArrayList<User> findAll() {
+            return all;
+        }
+
+        @Override
+        public synchronized void forEach(Consumer<? super User> action) {
+            all.forEach(action);
+        }
+
+        @Override
+        public int count() {
+            return all.size();
+        }
+    }
+
+    private static class Providers implements ProviderRepository {
+        private ArrayList<Provider> all = new ArrayList<>();
+        private final Map<String, Provider> byId = new ConcurrentHashMap<>();
+        private final Map<String, String> idsByName = new ConcurrentHashMap<>();
+
+        @Override
+        public Provider findById(String providerId) {
+            return providerId == null ? null : byId.get(providerId);
+        }
+
+        @Override
+        public String findIdByName(String providerName) {
+            return providerName == null ? null : idsByName.get(providerName);
+        }
+
+        @Override
+        public synchronized void insert(Provider provider) {
+            index(provider);
+            all.add(provider);
+        }
+
+        @Override
+        public synchronized void replaceAll(ArrayList<Provider> providers) {
+            all = providers;
+            byId.clear();
+            idsByName.clear();
+            for (Provider provider : providers)
+                index(provider);
+        }
+
+        @Override
+        public ArrayList<Provider> findAll() {
+            return all;
+        }
+
+        @Override
+        public synchronized void forEach(Consumer<? super Provider> action) {
+            all.forEach(action);
+        }
+
+        @Override
+        public int count() {
+            return all.size();
+        }
+
+        private void index(Provider provider) {
+            putIfAbsent(byId, provider.getId(), provider);
+            putIfAbsent(idsByName, provider.getName(), provider.getId());
+        }
+    }
+
+    private static class Commodities implements CommodityRepository {
+        private ArrayList<Commodity> all = new ArrayList<>();
+        private final Map<String, Commodity> byId = new ConcurrentHashMap<>();
+        private final Map<Integer, List<Commodity>> byProvider = new ConcurrentHashMap<>();
+        private final Map<Integer, List<Commodity>> byCategory = new ConcurrentHashMap<>();
+
+        @Override
+        public Commodity findById(String commodityId) {
+            return commodityId == null ? null : byId.get(commodityId);
+        }
+
+        @Override
+        public List<Commodity> findByProvider(String providerId) {
+            return providerId == null ? List.of()
+                    : byProvider.getOrDefault(Ordinals.PROVIDER_IDS.find(providerId), List.of());
+        }
+
+        @Override
+        public List<Commodity> findByCategory(String category) {
+            return category == null ? List.of()
+                    : byCategory.getOrDefault(Ordinals.CATEGORIES.find(category), List.of());
+        }
+
+        @Override
+        public synchronized void insert(Commodity commodity) {
+            index(commodity);
+            all.add(commodity);
+        }
+
+        @Override
+        public void update(Commodity commodity) {
+        }
+
+        @Override
+        public synchronized void replaceAll(ArrayList<Commodity> commodities) {
+            all = commodities;
+            byId.clear();
+            byProvider.clear();
+            byCategory.clear();
+            for (Commodity commodity : commodities)
+                index(commodity);
+        }
+
+        @Override
+        public ArrayList<Commodity> findAll() {
+            return all;
+        }
+
+        @Override
+        public synchronized void forEach(Consumer<? super Commodity> action) {
+            all.forEach(action);
+        }
+
+        @Override
+        public int count() {
+            return all.size();
+        }
+
+        private void index(Commodity commodity) {
+            putIfAbsent(byId, commodity.getId(), commodity);
+            if (commodity.providerCode() != 0)
+                appendTo(byProvider, commodity.providerCode(), commodity);
+            for (int category : commodity.categoryCodes())
+                if (category != 0)
+                    appendTo(byCategory, category, commodity);
+        }
+    }
+
+    private static class Comments implements CommentRepository {
+        private ArrayList<Comment> all = new ArrayList<>();
+        private final Map<Integer, Comment> byId = new ConcurrentHashMap<>();
+        private final Map<Integer, List<Comment>> byCommodity = new ConcurrentHashMap<>();
+
+        @Override
+        public Comment findById(int commentId) {
+            return byId.get(commentId);
+        }
+
+        @Override
+        public List<Comment> findByCommodity(int commodityId) {
+            return byCommodity.getOrDefault(commodityId, List.of());
+        }
+
+        @Override
+        public synchronized void insert(Comment comment) {
+            index(comment);
+            all.add(comment);
+        }
+
+        @Override
+        public void update(Comment comment) {
+        }
+
+        @Override
+        public synchronized void replaceAll(ArrayList<Comment> comments) {
+            all = comments;
+            byId.clear();
+            byCommodity.clear();
+            for (Comment comment : comments)
+                index(comment);
+        }
+
+        @Override
+        public ArrayList<Comment> findAll() {
+            return all;
+        }
+
+        @Override
+        public synchronized void forEach(Consumer<? super Comment> action) {
+            all.forEach(action);
+        }
+
+        @Override
+        public int count() {
+            return all.size();
+        }
+
+        private void index(Comment comment) {
+            byId.putIfAbsent(comment.getId(), comment);
+            appendTo(byCommodity, comment.getCommodityId(), comment);
+        }
+    }
+
+    private static <K, T> void appendTo(Map<K, List<T>> index, K key, T value) {
+        if (key != null)
+            index.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(value);
+    }
+
+    private static <K, T> void putIfAbsent(Map<K, T> index, K key, T value) {
+        if (key != null && value != null)
+            index.putIfAbsent(key, value);
+    }
+}
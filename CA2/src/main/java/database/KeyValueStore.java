@@ -0,0 +1,223 @@
+package database;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Log-structured key-value file keeping only the location of each key's latest value on the heap.
+public class KeyValueStore implements Closeable {
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private record Location(long valueOffset, int valueLength) {
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Location> locations = new ConcurrentHashMap<>();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    // A lock rather than a monitor, so a virtual thread waiting on file I/O under it does not pin its carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long flushedEnd;
+    private long end;
+    private long liveBytes;
+
+    // Opens the file keeping only its first validLength bytes; anything after them is discarded.
+    public KeyValueStore(Path file, long validLength) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() > validLength)
+            channel.truncate(validLength);
+        recover(Math.min(validLength, channel.size()));
+    }
+
+    private void recover(long length) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long position = 0;
+        while (position < length) {
+            readFully(header.clear(), position);
+            int keyLength = header.getInt(0);
+            int valueLength = header.getInt(Integer.BYTES);
+            ByteBuffer key = ByteBuffer.allocate(keyLength);
+            readFully(key, position + HEADER_SIZE);
+            record(new String(key.array(), StandardCharsets.UTF_8),
+                    new Location(position + HEADER_SIZE + keyLength, valueLength));
+            position += HEADER_SIZE + keyLength + valueLength;
+        }
+        end = position;
+        flushedEnd = position;
+    }
+
+    public byte[] get(String key) {
+        Location location = locations.get(key);
+        if (location == null)
+            return null;
+
+        if (location.valueOffset() + location.valueLength() > flushedEnd)
+            flush();
+
+        ByteBuffer value = ByteBuffer.allocate(location.valueLength());
+        try {
+            readFully(value, location.valueOffset());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return value.array();
+    }
+
+    public boolean contains(String key) {
+        return locations.containsKey(key);
+    }
+
+    public Set<String> keys() {
+        return locations.keySet();
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    public void put(String key, byte[] value) {
+        put(key, () -> value);
+    }
+
+    // The value is produced while holding the store's lock, so when several threads store the same mutable
+    // record the last value appended reflects the record's latest state.
+    public void put(String key, Supplier<byte[]> value) {
+        lock.lock();
+        try {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            byte[] valueBytes = value.get();
+            int recordSize = HEADER_SIZE + keyBytes.length + valueBytes.length;
+            if (recordSize > writeBuffer.remaining())
+                flushBuffer();
+            if (recordSize > writeBuffer.capacity()) {
+                ByteBuffer record = ByteBuffer.allocate(recordSize);
+                record.putInt(keyBytes.length).putInt(valueBytes.length).put(keyBytes).put(valueBytes).flip();
+                while (record.hasRemaining())
+                    channel.write(record, end + record.position());
+                flushedEnd = end + recordSize;
+            } else {
+                writeBuffer.putInt(keyBytes.length).putInt(valueBytes.length).put(keyBytes).put(valueBytes);
+            }
+
+            record(key, new Location(end + HEADER_SIZE + keyBytes.length, valueBytes.length));
+            end += recordSize;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() throws IOException {
+        lock.lock();
+        try {
+            writeBuffer.clear();
+            channel.truncate(0);
+            locations.clear();
+            end = 0;
+            flushedEnd = 0;
+            liveBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Flushes buffered appends and forces the file to disk, returning its length.
+    public long sync() throws IOException {
+        lock.lock();
+        try {
+            flushBuffer();
+            channel.force(false);
+            return end;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long length() {
+        lock.lock();
+        try {
+            return end;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Bytes taken by values that have since been overwritten.
+    public long garbageBytes() {
+        lock.lock();
+        try {
+            return end - liveBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            flushBuffer();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private void flush() {
+        lock.lock();
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        long position = flushedEnd;
+        while (writeBuffer.hasRemaining())
+            position += channel.write(writeBuffer, position);
+        writeBuffer.clear();
+        flushedEnd = position;
+    }
+
+    private void record(String key, Location location) {
+        Location previous = locations.put(key, location);
+        if (previous != null)
+            liveBytes -= recordSize(key, previous);
+        liveBytes += recordSize(key, location);
+    }
+
+    private static long recordSize(String key, Location location) {
+        return HEADER_SIZE + key.getBytes(StandardCharsets.UTF_8).length + location.valueLength();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new EOFException("Unexpected end of " + file);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package database;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Decoded records shared while callers reference them, so a key in use always maps to one instance.
+class LiveRecords<K, V> {
+    private final Map<K, KeyedReference<K, V>> records = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> collected = new ReferenceQueue<>();
+    private SoftReference<List<V>> listing;
+    private long changes;
+
+    private static class KeyedReference<K, V> extends WeakReference<V> {
+        final K key;
+
+        KeyedReference(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+
+    // The record is loaded outside compute, which would otherwise hold a monitor across the backend's read.
+    V get(K key, Function<K, V> loader) {
+        expunge();
+        KeyedReference<K, V> existing = records.get(key);
+        V value = existing == null ? null : existing.get();
+        if (value != null)
+            return value;
+
+        V loaded = loader.apply(key);
+        if (loaded == null)
+            return null;
+        Object[] result = new Object[1];
+        records.compute(key, (k, reference) -> {
+            V current = reference == null ? null : reference.get();
+            result[0] = current == null ? loaded : current;
+            return current == null ? new KeyedReference<>(k, loaded, collected) : reference;
+        });
+        @SuppressWarnings("unchecked")
+        V found = (V) result[0];
+        return found;
+    }
+
+    // The decoded listing is held softly, so repeated listings skip decoding until memory runs short.
+    ArrayList<V> all(Supplier<List<V>> loader) {
+        long seen;
+        synchronized (this) {
+            List<V> cached = listing == null ? null : listing.get();
+            if (cached != null)
+                return new ArrayList<>(cached);
+            seen = changes;
+        }
+
+        List<V> loaded = loader.get();
+        synchronized (this) {
+            if (changes == seen)
+                listing = new SoftReference<>(loaded);
+        }
+        return new ArrayList<>(loaded);
+    }
+
+    void put(K key, V value) {
+        expunge();
+        records.put(key, new KeyedReference<>(key, value, collected));
+        invalidate();
+    }
+
+    void clear() {
+        records.clear();
+        invalidate();
+    }
+
+    private synchronized void invalidate() {
+        changes++;
+        listing = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expunge() {
+        KeyedReference<K, V> reference;
+        while ((reference = (KeyedReference<K, V>) collected.poll()) != null)
+            records.remove(reference.key, reference);
+    }
+}
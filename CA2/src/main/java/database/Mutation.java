@@ -0,0 +1,147 @@
+package database;
+
+import model.Vote;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A single logged change to the store. Mutations carry only what is needed to redo them on top of the state
+// that was current when they were applied, so replaying the log in order reproduces that state.
+public sealed interface Mutation {
+    byte SIGNUP = 1;
+    byte CREDIT = 2;
+    byte BUY_LIST_ADD = 3;
+    byte BUY_LIST_REMOVE = 4;
+    byte PURCHASE = 5;
+    byte RATE = 6;
+    byte COMMENT = 7;
+    byte VOTE = 8;
+
+    record Signup(String username, String password, String email, String birthDate, String address)
+            implements Mutation {
+    }
+
+    record Credit(String username, float amount) implements Mutation {
+    }
+
+    record BuyListAdd(String username, String commodityId) implements Mutation {
+    }
+
+    record BuyListRemove(String username, String commodityId) implements Mutation {
+    }
+
+    record Purchase(String username, float amount, Map<String, Integer> items) implements Mutation {
+    }
+
+    record Rate(String commodityId, String username, int score) implements Mutation {
+    }
+
+    record AddComment(int id, String userEmail, String username, int commodityId, String text, String date)
+            implements Mutation {
+    }
+
+    record CommentVote(int commentId, String username, Vote vote) implements Mutation {
+    }
+
+    default byte[] encode() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            if (this instanceof Signup m) {
+                out.writeByte(SIGNUP);
+                writeString(m.username(), out);
+                writeString(m.password(), out);
+                writeString(m.email(), out);
+                writeString(m.birthDate(), out);
+                writeString(m.address(), out);
+            } else if (this instanceof Credit m) {
+                out.writeByte(CREDIT);
+                writeString(m.username(), out);
+                out.writeFloat(m.amount());
+            } else if (this instanceof BuyListAdd m) {
+                out.writeByte(BUY_LIST_ADD);
+                writeString(m.username(), out);
+                writeString(m.commodityId(), out);
+            } else if (this instanceof BuyListRemove m) {
+                out.writeByte(BUY_LIST_REMOVE);
+                writeString(m.username(), out);
+                writeString(m.commodityId(), out);
+            } else if (this instanceof Purchase m) {
+                out.writeByte(PURCHASE);
+                writeString(m.username(), out);
+                out.writeFloat(m.amount());
+                out.writeInt(m.items().size());
+                for (var item : m.items().entrySet()) {
+                    writeString(item.getKey(), out);
+                    out.writeInt(item.getValue());
+                }
+            } else if (this instanceof Rate m) {
+                out.writeByte(RATE);
+                writeString(m.commodityId(), out);
+                writeString(m.username(), out);
+                out.writeInt(m.score());
+            } else if (this instanceof AddComment m) {
+                out.writeByte(COMMENT);
+                out.writeInt(m.id());
+                writeString(m.userEmail(), out);
+                writeString(m.username(), out);
+                out.writeInt(m.commodityId());
+                writeString(m.text(), out);
+                writeString(m.date(), out);
+            } else if (this instanceof CommentVote m) {
+                out.writeByte(VOTE);
+                out.writeInt(m.commentId());
+                writeString(m.username(), out);
+                writeString(m.vote() == null ? null : m.vote().getValue(), out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    static Mutation decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        byte type = in.readByte();
+        return switch (type) {
+            case SIGNUP -> new Signup(readString(in), readString(in), readString(in), readString(in), readString(in));
+            case CREDIT -> new Credit(readString(in), in.readFloat());
+            case BUY_LIST_ADD -> new BuyListAdd(readString(in), readString(in));
+            case BUY_LIST_REMOVE -> new BuyListRemove(readString(in), readString(in));
+            case PURCHASE -> {
+                String username = readString(in);
+                float amount = in.readFloat();
+                int size = in.readInt();
+                Map<String, Integer> items = new LinkedHashMap<>(size * 2);
+                for (int i = 0; i < size; i++)
+                    items.put(readString(in), in.readInt());
+                yield new Purchase(username, amount, items);
+            }
+            case RATE -> new Rate(readString(in), readString(in), in.readInt());
+            case COMMENT -> new AddComment(in.readInt(), readString(in), readString(in), in.readInt(),
+                    readString(in), readString(in));
+            case VOTE -> new CommentVote(in.readInt(), readString(in), Vote.fromValue(readString(in)));
+            default -> throw new IOException("Unknown mutation type " + type);
+        };
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
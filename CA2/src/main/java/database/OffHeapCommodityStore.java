@@ -0,0 +1,254 @@
+package database;
+
+import model.Commodity;
+import utils.Ordinals;
+import utils.RoaringBitmap;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+// Commodities encoded in direct-memory slabs; Database's indexes and versions stay on the heap.
+public class OffHeapCommodityStore implements CommodityRepository {
+    static final int DEFAULT_SLAB_SIZE = 8 << 20;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final long ABSENT = -1;
+
+    private final int slabSize;
+    // Indexed by Ordinals.COMMODITY_IDS; written under the store's lock.
+    private volatile AtomicLongArray locations = absentLocations(16);
+    private int count;
+    private final LiveRecords<String, Commodity> live = new LiveRecords<>();
+    private final Map<Integer, RoaringBitmap> ordinalsByProvider = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> ordinalsByCategory = new HashMap<>();
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private int[] liveBytes = new int[0];
+    private int activeSlab = -1;
+    private int activeEnd;
+    private boolean evacuating;
+
+    public OffHeapCommodityStore() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    public OffHeapCommodityStore(int slabSize) {
+        this.slabSize = slabSize;
+    }
+
+    @Override
+    public Commodity findById(String commodityId) {
+        if (commodityId == null)
+            return null;
+
+        return live.get(commodityId, this::decode);
+    }
+
+    @Override
+    public List<Commodity> findByProvider(String providerId) {
+        return providerId == null ? List.of() : resolve(ordinalsByProvider, Ordinals.PROVIDER_IDS.find(providerId));
+    }
+
+    @Override
+    public List<Commodity> findByCategory(String category) {
+        return category == null ? List.of() : resolve(ordinalsByCategory, Ordinals.CATEGORIES.find(category));
+    }
+
+    @Override
+    public synchronized void insert(Commodity commodity) {
+        if (commodity.getId() == null || locationOf(commodity.getId()) != ABSENT)
+            return;
+
+        int ordinal = Ordinals.COMMODITY_IDS.intern(commodity.getId());
+        store(ordinal, SnapshotCodec.encodeCommodity(commodity));
+        count += 1;
+        live.put(commodity.getId(), commodity);
+        if (commodity.providerCode() != 0)
+            ordinalsByProvider.computeIfAbsent(commodity.providerCode(), code -> new RoaringBitmap()).add(ordinal);
+        for (int category : commodity.categoryCodes())
+            if (category != 0)
+                ordinalsByCategory.computeIfAbsent(category, code -> new RoaringBitmap()).add(ordinal);
+    }
+
+    // Encodes under the store's lock, so the last version stored reflects the commodity's latest state.
+    @Override
+    public synchronized void update(Commodity commodity) {
+        if (locationOf(commodity.getId()) != ABSENT)
+            store(Ordinals.COMMODITY_IDS.find(commodity.getId()), SnapshotCodec.encodeCommodity(commodity));
+    }
+
+    @Override
+    public synchronized void replaceAll(ArrayList<Commodity> commodities) {
+        locations = absentLocations(16);
+        count = 0;
+        live.clear();
+        ordinalsByProvider.clear();
+        ordinalsByCategory.clear();
+        slabs = new ByteBuffer[0];
+        liveBytes = new int[0];
+        activeSlab = -1;
+        for (Commodity commodity : commodities)
+            insert(commodity);
+    }
+
+    @Override
+    public ArrayList<Commodity> findAll() {
+        ArrayList<Commodity> all = new ArrayList<>(count());
+        forEach(all::add);
+        return all;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Commodity> action) {
+        AtomicLongArray current = locations;
+        for (int ordinal = 1; ordinal < current.length(); ordinal++) {
+            if (current.get(ordinal) == ABSENT)
+                continue;
+            Commodity commodity = findById(Ordinals.COMMODITY_IDS.valueOf(ordinal));
+            if (commodity != null)
+                action.accept(commodity);
+        }
+    }
+
+    @Override
+    public synchronized int count() {
+        return count;
+    }
+
+    // Direct memory currently held by slabs, including space left by superseded records.
+    public synchronized long reservedBytes() {
+        long reserved = 0;
+        for (ByteBuffer slab : slabs)
+            if (slab != null)
+                reserved += slab.capacity();
+        return reserved;
+    }
+
+    private long locationOf(String commodityId) {
+        int ordinal = Ordinals.COMMODITY_IDS.find(commodityId);
+        AtomicLongArray current = locations;
+        return ordinal == 0 || ordinal >= current.length() ? ABSENT : current.get(ordinal);
+    }
+
+    private Commodity decode(String commodityId) {
+        while (true) {
+            long location = locationOf(commodityId);
+            if (location == ABSENT)
+                return null;
+
+            ByteBuffer[] current = slabs;
+            int slabIndex = slabOf(location);
+            ByteBuffer slab = slabIndex < current.length ? current[slabIndex] : null;
+            if (slab == null)
+                continue;
+
+            int offset = offsetOf(location);
+            byte[] bytes = new byte[slab.getInt(offset)];
+            slab.get(offset + LENGTH_SIZE, bytes);
+            return SnapshotCodec.decodeCommodity(bytes);
+        }
+    }
+
+    private void store(int ordinal, byte[] bytes) {
+        int size = LENGTH_SIZE + bytes.length;
+        if (activeSlab < 0 || activeEnd + size > slabs[activeSlab].capacity())
+            allocateSlab(size);
+
+        ByteBuffer slab = slabs[activeSlab];
+        slab.putInt(activeEnd, bytes.length);
+        slab.put(activeEnd + LENGTH_SIZE, bytes);
+        if (ordinal >= locations.length())
+            locations = grow(locations, ordinal);
+        long previous = locations.getAndSet(ordinal, location(activeSlab, activeEnd));
+        liveBytes[activeSlab] += size;
+        activeEnd += size;
+
+        if (previous != ABSENT)
+            release(previous);
+    }
+
+    private void release(long location) {
+        int slabIndex = slabOf(location);
+        ByteBuffer slab = slabs[slabIndex];
+        liveBytes[slabIndex] -= LENGTH_SIZE + slab.getInt(offsetOf(location));
+        if (!evacuating && slabIndex != activeSlab && liveBytes[slabIndex] < slab.capacity() / 4)
+            evacuate(slabIndex);
+    }
+
+    // Moves the remaining records of a mostly superseded slab to the active one and drops it. A reader that finds
+    // the slab gone re-reads the location; the slab's memory is freed once no reader references it.
+    private void evacuate(int slabIndex) {
+        ByteBuffer slab = slabs[slabIndex];
+        evacuating = true;
+        try {
+            for (int ordinal = 1; ordinal < locations.length(); ordinal++) {
+                long location = locations.get(ordinal);
+                if (location == ABSENT || slabOf(location) != slabIndex)
+                    continue;
+                int offset = offsetOf(location);
+                byte[] bytes = new byte[slab.getInt(offset)];
+                slab.get(offset + LENGTH_SIZE, bytes);
+                store(ordinal, bytes);
+            }
+        } finally {
+            evacuating = false;
+        }
+
+        ByteBuffer[] updated = slabs.clone();
+        updated[slabIndex] = null;
+        slabs = updated;
+    }
+
+    private void allocateSlab(int minimumSize) {
+        ByteBuffer[] updated = Arrays.copyOf(slabs, slabs.length + 1);
+        updated[slabs.length] = ByteBuffer.allocateDirect(Math.max(slabSize, minimumSize));
+        liveBytes = Arrays.copyOf(liveBytes, updated.length);
+        activeSlab = slabs.length;
+        activeEnd = 0;
+        slabs = updated;
+    }
+
+    private List<Commodity> resolve(Map<Integer, RoaringBitmap> index, int code) {
+        int[] ordinals;
+        synchronized (this) {
+            RoaringBitmap bitmap = index.get(code);
+            if (bitmap == null)
+                return List.of();
+            ordinals = bitmap.toArray();
+        }
+
+        List<Commodity> resolved = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            Commodity commodity = findById(Ordinals.COMMODITY_IDS.valueOf(ordinal));
+            if (commodity != null)
+                resolved.add(commodity);
+        }
+        return resolved;
+    }
+
+    private static long location(int slabIndex, int offset) {
+        return (long) slabIndex << 32 | offset;
+    }
+
+    private static int slabOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    private static AtomicLongArray absentLocations(int length) {
+        AtomicLongArray locations = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++)
+            locations.set(i, ABSENT);
+        return locations;
+    }
+
+    private static AtomicLongArray grow(AtomicLongArray locations, int ordinal) {
+        AtomicLongArray grown = absentLocations(Math.max(ordinal + 1, locations.length() * 2));
+        for (int i = 0; i < locations.length(); i++)
+            grown.set(i, locations.get(i));
+        return grown;
+    }
+}
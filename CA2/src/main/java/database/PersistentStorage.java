@@ -0,0 +1,14 @@
+package database;
+
+import java.io.IOException;
+
+// A storage backend that keeps its records in its own files and checkpoints them against the write-ahead log.
+public interface PersistentStorage extends StorageBackend {
+    // Sequence number of the last logged mutation reflected in the backend's files, or -1 when it holds no
+    // checkpointed data.
+    long checkpointSequence();
+
+    // Makes everything stored so far durable as covering the given sequence number. Callers must keep writers
+    // out while it runs.
+    void checkpoint(long sequence) throws IOException;
+}
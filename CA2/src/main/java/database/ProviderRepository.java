@@ -0,0 +1,22 @@
+package database;
+
+import model.Provider;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+public interface ProviderRepository {
+    Provider findById(String providerId);
+
+    String findIdByName(String providerName);
+
+    void insert(Provider provider);
+
+    void replaceAll(ArrayList<Provider> providers);
+
+    ArrayList<Provider> findAll();
+
+    void forEach(Consumer<? super Provider> action);
+
+    int count();
+}
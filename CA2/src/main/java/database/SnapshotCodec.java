@@ -0,0 +1,372 @@
+package database;
+
+import model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Binary snapshot of all records, with repeated strings written as back-references.
+public class SnapshotCodec {
+    private static final int MAGIC = 0x424c5453;
+    private static final int VERSION = 2;
+    private static final int NULL_STRING = -1;
+    private static final int NEW_STRING = -2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public record Snapshot(long sequence, DataSet dataSet) {
+    }
+
+    private SnapshotCodec() {
+    }
+
+    public static void write(Path file, DataSet dataSet) throws IOException {
+        write(file, dataSet, 0);
+    }
+
+    public static void write(Path file, DataSet dataSet, long sequence) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE))) {
+            SnapshotWriter writer = new SnapshotWriter(out);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            writer.writeSection(dataSet.users(), writer::writeUser);
+            writer.writeSection(dataSet.providers(), writer::writeProvider);
+            writer.writeSection(dataSet.commodities(), writer::writeCommodity);
+            writer.writeSection(dataSet.comments(), writer::writeComment);
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static DataSet read(Path file) throws IOException {
+        return readSnapshot(file).dataSet();
+    }
+
+    public static Snapshot readSnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(openForRead(file))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException(file + " is not a supported snapshot");
+
+            long sequence = in.readLong();
+            SnapshotReader reader = new SnapshotReader(in);
+            ArrayList<User> users = reader.readSection(reader::readUser);
+            ArrayList<Provider> providers = reader.readSection(reader::readProvider);
+            ArrayList<Commodity> commodities = reader.readSection(reader::readCommodity);
+            ArrayList<Comment> comments = reader.readSection(reader::readComment);
+            return new Snapshot(sequence, new DataSet(users, providers, commodities, comments));
+        }
+    }
+
+    // Single records as the disk storage keeps them; each record carries its own string table.
+    static byte[] encodeUser(User user) {
+        return encodeRecord(user, SnapshotWriter::writeUser);
+    }
+
+    static byte[] encodeProvider(Provider provider) {
+        return encodeRecord(provider, SnapshotWriter::writeProvider);
+    }
+
+    static byte[] encodeCommodity(Commodity commodity) {
+        return encodeRecord(commodity, SnapshotWriter::writeCommodity);
+    }
+
+    static byte[] encodeComment(Comment comment) {
+        return encodeRecord(comment, SnapshotWriter::writeComment);
+    }
+
+    static User decodeUser(byte[] bytes) {
+        return decodeRecord(bytes, SnapshotReader::readUser);
+    }
+
+    static Provider decodeProvider(byte[] bytes) {
+        return decodeRecord(bytes, SnapshotReader::readProvider);
+    }
+
+    static Commodity decodeCommodity(byte[] bytes) {
+        return decodeRecord(bytes, SnapshotReader::readCommodity);
+    }
+
+    static Comment decodeComment(byte[] bytes) {
+        return decodeRecord(bytes, SnapshotReader::readComment);
+    }
+
+    private static <T> byte[] encodeRecord(T record, RecordEncoder<T> encoder) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            encoder.write(new SnapshotWriter(out), record, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static <T> T decodeRecord(byte[] bytes, RecordDecoder<T> decoder) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return decoder.read(new SnapshotReader(in), in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream openForRead(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() <= Integer.MAX_VALUE)
+                return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        return new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+    }
+
+    private interface RecordWriter<T> {
+        void write(T record, DataOutputStream out) throws IOException;
+    }
+
+    private interface RecordReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private interface RecordEncoder<T> {
+        void write(SnapshotWriter writer, T record, DataOutputStream out) throws IOException;
+    }
+
+    private interface RecordDecoder<T> {
+        T read(SnapshotReader reader, DataInputStream in) throws IOException;
+    }
+
+    private static class SnapshotWriter {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+        private final DataOutputStream record = new DataOutputStream(recordBuffer);
+
+        SnapshotWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        <T> void writeSection(List<T> records, RecordWriter<T> recordWriter) throws IOException {
+            out.writeInt(records.size());
+            for (T value : records) {
+                recordBuffer.reset();
+                recordWriter.write(value, record);
+                out.writeInt(recordBuffer.size());
+                recordBuffer.writeTo(out);
+            }
+        }
+
+        void writeString(String value, DataOutputStream out) throws IOException {
+            if (value == null) {
+                out.writeInt(NULL_STRING);
+                return;
+            }
+
+            Integer index = strings.get(value);
+            if (index != null) {
+                out.writeInt(index);
+                return;
+            }
+
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(NEW_STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        <K> void writeCounts(Map<K, Integer> map, RecordWriter<K> keyWriter, DataOutputStream out) throws IOException {
+            out.writeInt(map.size());
+            for (var entry : map.entrySet()) {
+                keyWriter.write(entry.getKey(), out);
+                out.writeInt(entry.getValue());
+            }
+        }
+
+        void writeUser(User user, DataOutputStream out) throws IOException {
+            writeString(user.getUsername(), out);
+            writeString(user.getPassword(), out);
+            writeString(user.getEmail(), out);
+            writeString(user.getBirthDate(), out);
+            writeString(user.getAddress(), out);
+            out.writeFloat(user.getCredit());
+            writeCounts(user.getCommoditiesRates(), (key, o) -> o.writeInt(key), out);
+            writeCounts(user.getBuyList(), this::writeString, out);
+            writeCounts(user.getPurchasedList(), this::writeString, out);
+        }
+
+        void writeProvider(Provider provider, DataOutputStream out) throws IOException {
+            writeString(provider.getId(), out);
+            writeString(provider.getName(), out);
+            writeString(provider.getRegistryDate(), out);
+            writeString(provider.getImage(), out);
+        }
+
+        void writeCommodity(Commodity commodity, DataOutputStream out) throws IOException {
+            writeString(commodity.getId(), out);
+            writeString(commodity.getName(), out);
+            writeString(commodity.getProviderId(), out);
+            out.writeInt(commodity.getPrice());
+            List<String> categories = commodity.getCategories() == null ? List.of() : commodity.getCategories();
+            out.writeInt(categories.size());
+            for (String category : categories)
+                writeString(category, out);
+            out.writeFloat(commodity.getRating());
+            out.writeInt(commodity.getInStock());
+            writeString(commodity.getImage(), out);
+            out.writeFloat(commodity.getInitRate());
+            writeCounts(commodity.getUserRate(), this::writeString, out);
+        }
+
+        void writeComment(Comment comment, DataOutputStream out) throws IOException {
+            out.writeInt(comment.getId());
+            writeString(comment.getUserEmail(), out);
+            writeString(comment.getUsername(), out);
+            out.writeInt(comment.getCommodityId());
+            writeString(comment.getText(), out);
+            writeString(comment.getDate(), out);
+            out.writeInt(comment.getLike());
+            out.writeInt(comment.getDislike());
+            out.writeInt(comment.getUserVote().size());
+            for (var entry : comment.getUserVote().entrySet()) {
+                writeString(entry.getKey(), out);
+                out.writeByte(entry.getValue().ordinal());
+            }
+        }
+    }
+
+    private static class SnapshotReader {
+        private static final Vote[] VOTES = Vote.values();
+
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        SnapshotReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        <T> ArrayList<T> readSection(RecordReader<T> recordReader) throws IOException {
+            int count = in.readInt();
+            ArrayList<T> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                in.readInt();
+                records.add(recordReader.read(in));
+            }
+            return records;
+        }
+
+        String readString(DataInputStream in) throws IOException {
+            int index = in.readInt();
+            if (index == NULL_STRING)
+                return null;
+            if (index != NEW_STRING)
+                return strings.get(index);
+
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        <K> Map<K, Integer> readCounts(RecordReader<K> keyReader, DataInputStream in) throws IOException {
+            int size = in.readInt();
+            Map<K, Integer> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                K key = keyReader.read(in);
+                map.put(key, in.readInt());
+            }
+            return map;
+        }
+
+        User readUser(DataInputStream in) throws IOException {
+            User user = new User(readString(in), readString(in), readString(in), readString(in), readString(in));
+            user.setCredit(in.readFloat());
+            user.setCommoditiesRates(readCounts(DataInput::readInt, in));
+            user.setBuyList(readCounts(this::readString, in));
+            user.setPurchasedList(readCounts(this::readString, in));
+            return user;
+        }
+
+        Provider readProvider(DataInputStream in) throws IOException {
+            Provider provider = new Provider();
+            provider.setId(readString(in));
+            provider.setName(readString(in));
+            provider.setRegistryDate(readString(in));
+            provider.setImage(readString(in));
+            return provider;
+        }
+
+        Commodity readCommodity(DataInputStream in) throws IOException {
+            Commodity commodity = new Commodity();
+            commodity.setId(readString(in));
+            commodity.setName(readString(in));
+            commodity.setProviderId(readString(in));
+            commodity.setPrice(in.readInt());
+            int numberOfCategories = in.readInt();
+            ArrayList<String> categories = new ArrayList<>(numberOfCategories);
+            for (int i = 0; i < numberOfCategories; i++)
+                categories.add(readString(in));
+            commodity.setCategories(categories);
+            commodity.setRating(in.readFloat());
+            commodity.setInStock(in.readInt());
+            commodity.setImage(readString(in));
+            commodity.setInitRate(in.readFloat());
+            commodity.setUserRate(readCounts(this::readString, in));
+            return commodity;
+        }
+
+        Comment readComment(DataInputStream in) throws IOException {
+            Comment comment = new Comment();
+            comment.setId(in.readInt());
+            comment.setUserEmail(readString(in));
+            comment.setUsername(readString(in));
+            comment.setCommodityId(in.readInt());
+            comment.setText(readString(in));
+            comment.setDate(readString(in));
+            int like = in.readInt();
+            int dislike = in.readInt();
+            int numberOfVotes = in.readInt();
+            Map<String, Vote> votes = new HashMap<>(numberOfVotes * 2);
+            for (int i = 0; i < numberOfVotes; i++) {
+                String username = readString(in);
+                votes.put(username, VOTES[in.readByte()]);
+            }
+            comment.setUserVote(votes);
+            comment.setLike(like);
+            comment.setDislike(dislike);
+            return comment;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining())
+                return -1;
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
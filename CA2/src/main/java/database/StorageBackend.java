@@ -0,0 +1,18 @@
+package database;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Where Database keeps its records.
+public interface StorageBackend extends Closeable {
+    UserRepository users();
+
+    ProviderRepository providers();
+
+    CommodityRepository commodities();
+
+    CommentRepository comments();
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,69 @@
+package database;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+public class StorageConfig {
+    private static final String STATE_DIRECTORY_PROPERTY = "baloot.state.dir";
+    private static final String DEFAULT_STATE_DIRECTORY = "state";
+    private static final String WAL_COMMIT_WINDOW_PROPERTY = "baloot.wal.commit-window-ms";
+    private static final long DEFAULT_WAL_COMMIT_WINDOW_MILLIS = 2;
+    private static final String WAL_BATCH_SIZE_PROPERTY = "baloot.wal.batch-size";
+    private static final int DEFAULT_WAL_BATCH_SIZE = 256;
+    private static final String COMPACTION_INTERVAL_PROPERTY = "baloot.wal.compaction-interval-s";
+    private static final long DEFAULT_COMPACTION_INTERVAL_SECONDS = 300;
+    private static final String STORAGE_BACKEND_PROPERTY = "baloot.storage";
+    private static final String MEMORY_BACKEND = "memory";
+    private static final String DISK_BACKEND = "disk";
+    private static final String OFF_HEAP_BACKEND = "offheap";
+
+    private StorageConfig() {
+    }
+
+    public static Path stateDirectory() {
+        return Paths.get(System.getProperty(STATE_DIRECTORY_PROPERTY, DEFAULT_STATE_DIRECTORY));
+    }
+
+    // How long the log writer waits for more appends to join a group before syncing it to disk.
+    public static Duration walCommitWindow() {
+        return Duration.ofMillis(Long.getLong(WAL_COMMIT_WINDOW_PROPERTY, DEFAULT_WAL_COMMIT_WINDOW_MILLIS));
+    }
+
+    // Upper bound on the number of appends covered by a single fsync.
+    public static int walBatchSize() {
+        return Integer.getInteger(WAL_BATCH_SIZE_PROPERTY, DEFAULT_WAL_BATCH_SIZE);
+    }
+
+    // How often the log is folded into a fresh snapshot, bounding how much of it a restart has to replay.
+    public static Duration compactionInterval() {
+        return Duration.ofSeconds(Long.getLong(COMPACTION_INTERVAL_PROPERTY, DEFAULT_COMPACTION_INTERVAL_SECONDS));
+    }
+
+    // "memory" keeps every record on the heap; "offheap" does too except for commodities, which it keeps in direct
+    // memory; "disk" keeps records in key-value files and only caches those in use.
+    public static String storageBackend() {
+        return System.getProperty(STORAGE_BACKEND_PROPERTY, MEMORY_BACKEND);
+    }
+
+    // Whether looking a record up may wait on a file read, which only the disk backend's cache misses do.
+    public static boolean readsMayBlock() {
+        return DISK_BACKEND.equals(storageBackend());
+    }
+
+    // Where the chosen backend keeps its files, log and id reservations. Backends persisted through snapshots share
+    // one, since their state is interchangeable; the disk backend gets its own.
+    public static Path storageDirectory() {
+        return DISK_BACKEND.equals(storageBackend()) ? stateDirectory().resolve(DISK_BACKEND) : stateDirectory();
+    }
+
+    public static StorageBackend openStorageBackend() throws IOException {
+        return switch (storageBackend()) {
+            case MEMORY_BACKEND -> new InMemoryStorage();
+            case OFF_HEAP_BACKEND -> new InMemoryStorage(new OffHeapCommodityStore());
+            case DISK_BACKEND -> new DiskStorage(storageDirectory().resolve("records"));
+            default -> throw new IllegalArgumentException("Unknown storage backend " + storageBackend());
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package database;
+
+import model.User;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+public interface UserRepository {
+    User findByUsername(String username);
+
+    // Returns false, leaving the repository unchanged, when the username is already taken.
+    boolean insert(User user);
+
+    // Persists changes made in place to a user obtained from this repository.
+    void update(User user);
+
+    void replaceAll(ArrayList<User> users);
+
+    ArrayList<User> findAll();
+
+    void forEach(Consumer<? super User> action);
+
+    int count();
+}
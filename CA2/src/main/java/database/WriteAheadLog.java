@@ -0,0 +1,330 @@
+package database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only segmented log of mutations, committed by one writer thread in fsync groups.
+public class WriteAheadLog implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Pending CLOSE = new Pending(0, null, 0, null);
+
+    public record Entry(long sequence, Mutation mutation) {
+    }
+
+    private record Recovered(long lastSequence, long validEnd) {
+    }
+
+    // A queued append, or a rotation request when it has no payload.
+    private record Pending(long sequence, byte[] payload, int checksum, CompletableFuture<Long> done) {
+    }
+
+    private final Path directory;
+    private final long commitWindowNanos;
+    private final int batchSize;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private FileChannel channel;
+    private volatile IOException failure;
+    private boolean closed;
+    private long lastSequence;
+
+    private WriteAheadLog(Path directory, FileChannel channel, long lastSequence, Duration commitWindow,
+                          int batchSize) {
+        this.directory = directory;
+        this.channel = channel;
+        this.lastSequence = lastSequence;
+        this.commitWindowNanos = commitWindow.toNanos();
+        this.batchSize = Math.max(1, batchSize);
+        this.writer = new Thread(this::runWriter, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Replays, in order, every intact record with a sequence number above afterSequence, drops whatever follows
+    // the last intact record, and returns the log ready for appends.
+    public static WriteAheadLog open(Path directory, long afterSequence, Duration commitWindow, int batchSize,
+                                     Consumer<Entry> replay) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments(directory);
+        long lastSequence = afterSequence;
+        Path activeSegment = null;
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            long firstSequence = firstSequence(segment);
+            if (firstSequence > lastSequence + 1)
+                throw new IOException("Write-ahead log is missing records " + (lastSequence + 1) + " to "
+                        + (firstSequence - 1));
+
+            boolean active = i == segments.size() - 1;
+            Recovered recovered = replay(segment, firstSequence, afterSequence, replay);
+            lastSequence = Math.max(lastSequence, recovered.lastSequence());
+            if (recovered.validEnd() < Files.size(segment)) {
+                if (!active)
+                    throw new IOException("Write-ahead log segment " + segment + " is corrupt");
+
+                logger.warn("Truncating {} bytes of incomplete records from {}",
+                        Files.size(segment) - recovered.validEnd(), segment);
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    channel.truncate(recovered.validEnd());
+                    channel.force(true);
+                }
+            }
+            if (active && recovered.lastSequence() == lastSequence)
+                activeSegment = segment;
+        }
+
+        // Appends continue in the last segment unless the snapshot already covers more than it holds.
+        if (activeSegment == null)
+            activeSegment = segmentFile(directory, lastSequence + 1);
+        FileChannel channel = FileChannel.open(activeSegment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        return new WriteAheadLog(directory, channel, lastSequence, commitWindow, batchSize);
+    }
+
+    private static Recovered replay(Path segment, long firstSequence, long afterSequence, Consumer<Entry> replay)
+            throws IOException {
+        long lastSequence = firstSequence - 1;
+        long validEnd = 0;
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(
+                     new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE))) {
+            while (true) {
+                byte[] payload;
+                long sequence;
+                try {
+                    int length = in.readInt();
+                    sequence = in.readLong();
+                    int checksum = in.readInt();
+                    if (length < 0 || sequence != lastSequence + 1)
+                        break;
+                    payload = in.readNBytes(length);
+                    if (payload.length != length || checksum(payload) != checksum)
+                        break;
+                } catch (EOFException e) {
+                    break;
+                }
+
+                if (sequence > afterSequence) {
+                    replay.accept(new Entry(sequence, Mutation.decode(payload)));
+                    count += 1;
+                }
+                lastSequence = sequence;
+                validEnd += HEADER_SIZE + payload.length;
+            }
+        }
+
+        logger.info("Replayed {} records from {}", count, segment);
+        return new Recovered(lastSequence, validEnd);
+    }
+
+    // Throws once the log can no longer persist appends, so callers can refuse a mutation before applying it.
+    public void checkWritable() {
+        if (failure != null)
+            throw new IllegalStateException("Write-ahead log has failed", failure);
+        synchronized (queue) {
+            if (closed)
+                throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    // Queues a mutation; the returned future completes with its sequence number once it is on disk.
+    public CompletableFuture<Long> append(Mutation mutation) {
+        byte[] payload = mutation.encode();
+        int checksum = checksum(payload);
+        synchronized (queue) {
+            if (closed)
+                return CompletableFuture.failedFuture(new IllegalStateException("Write-ahead log is closed"));
+            if (failure != null)
+                return CompletableFuture.failedFuture(new UncheckedIOException(failure));
+
+            Pending pending = new Pending(++lastSequence, payload, checksum, new CompletableFuture<>());
+            queue.add(pending);
+            return pending.done();
+        }
+    }
+
+    // Sequence number of the last mutation handed to append, durable or not.
+    public long lastSequence() {
+        synchronized (queue) {
+            return lastSequence;
+        }
+    }
+
+    // Starts a new segment after everything appended so far. The future completes with the last sequence number
+    // of the closed segments once they are on disk and later appends go to the new segment.
+    public CompletableFuture<Long> rotate() {
+        synchronized (queue) {
+            if (closed)
+                return CompletableFuture.failedFuture(new IllegalStateException("Write-ahead log is closed"));
+
+            Pending rotation = new Pending(lastSequence, null, 0, new CompletableFuture<>());
+            queue.add(rotation);
+            return rotation.done();
+        }
+    }
+
+    // Deletes the segments whose records all have sequence numbers up to and including the given one.
+    public void deleteSegmentsThrough(long sequence) throws IOException {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size() - 1; i++)
+            if (firstSequence(segments.get(i + 1)) <= sequence + 1)
+                Files.delete(segments.get(i));
+    }
+
+    @Override
+    public void close() {
+        synchronized (queue) {
+            if (closed)
+                return;
+            closed = true;
+            queue.add(CLOSE);
+        }
+
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Failed to close write-ahead log", e);
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + commitWindowNanos;
+                queue.drainTo(batch, batchSize - batch.size());
+                while (batch.size() < batchSize && !batch.contains(CLOSE)) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                closing = true;
+            }
+
+            int start = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                Pending pending = batch.get(i);
+                if (pending.payload() != null)
+                    continue;
+
+                commit(batch.subList(start, i));
+                if (pending == CLOSE)
+                    closing = true;
+                else
+                    startSegment(pending);
+                start = i + 1;
+            }
+            commit(batch.subList(start, batch.size()));
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Pending> appends) {
+        if (appends.isEmpty())
+            return;
+
+        if (failure == null) {
+            try {
+                int size = 0;
+                for (Pending pending : appends)
+                    size += HEADER_SIZE + pending.payload().length;
+
+                ByteBuffer buffer = ByteBuffer.allocate(size);
+                for (Pending pending : appends) {
+                    buffer.putInt(pending.payload().length);
+                    buffer.putLong(pending.sequence());
+                    buffer.putInt(pending.checksum());
+                    buffer.put(pending.payload());
+                }
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(false);
+
+                for (Pending pending : appends)
+                    pending.done().complete(pending.sequence());
+                return;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        for (Pending pending : appends)
+            pending.done().completeExceptionally(new UncheckedIOException(failure));
+    }
+
+    private void startSegment(Pending rotation) {
+        if (failure == null) {
+            try {
+                FileChannel next = FileChannel.open(segmentFile(directory, rotation.sequence() + 1),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                channel.close();
+                channel = next;
+                rotation.done().complete(rotation.sequence());
+                return;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        rotation.done().completeExceptionally(new UncheckedIOException(failure));
+    }
+
+    private void fail(IOException e) {
+        logger.error("Write-ahead log failed, rejecting further appends", e);
+        failure = e;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path segmentFile(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
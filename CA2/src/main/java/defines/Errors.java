@@ -10,6 +10,7 @@ public class Errors {
     public static final String MISSING_COMMENT_ID = "Comment ID cannot be null.";
     public static final String MISSING_VOTE_VALUE = "Vote value cannot be null.";
     public static final String MISSING_START_OR_END_PRICE = "Start or end price values cannot be null.";
+    public static final String MISSING_FILTER = "At least one filter should be given.";
     public static final String MISSING_CATEGORY = "Category cannot be null.";
     public static final String INVALID_RATE_FORMAT = "Rate should be an integer.";
     public static final String INVALID_CREDIT_FORMAT = "Credit should be a float.";
@@ -17,6 +18,10 @@ public class Errors {
     public static final String INVALID_RATE_RANGE = "Rate value must be an integer between 1 and 10";
     public static final String INVALID_CREDIT_RANGE = "Credit value must be a positive float";
     public static final String INVALID_PRICE_RANGE = "Invalid Price Range.";
+    public static final String INVALID_SORT_OPTION = "Sort should be one of id, price, rating or name.";
+    public static final String INVALID_SORT_ORDER = "Order should be either asc or desc.";
+    public static final String INVALID_PAGE_SIZE = "Limit must be an integer between 1 and 1000.";
+    public static final String INVALID_CURSOR = "Invalid cursor.";
     public static final String INSUFFICIENT_CREDIT = "Credit is insufficient.";
     public static final String NOT_EXISTENT_COMMODITY = "Commodity does not exist.";
     public static final String NOT_EXISTENT_COMMENT = "Comment does not exist.";
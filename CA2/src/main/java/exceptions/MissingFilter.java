@@ -0,0 +1,9 @@
+package exceptions;
+
+import static defines.Errors.MISSING_FILTER;
+
+public class MissingFilter extends Exception {
+    public MissingFilter() {
+        super(MISSING_FILTER);
+    }
+}
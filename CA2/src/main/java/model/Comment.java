@@ -1,13 +1,15 @@
 package model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Getter
 @Setter
@@ -21,9 +23,14 @@ public class Comment {
     private String text;
     private String date;
 
-    private int like;
-    private int dislike;
-    private Map<String, String> userVote = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicInteger like = new AtomicInteger();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicInteger dislike = new AtomicInteger();
+    @Setter(AccessLevel.NONE)
+    private Map<String, Vote> userVote = new ConcurrentHashMap<>();
 
     public Comment(int id, String userEmail, String username, int commodityId, String text) {
         this.id = id;
@@ -34,24 +41,70 @@ public class Comment {
         this.date = getCurrentDate();
     }
 
+    public Comment copy() {
+        Comment copy = new Comment();
+        copy.id = id;
+        copy.userEmail = userEmail;
+        copy.username = username;
+        copy.commodityId = commodityId;
+        copy.text = text;
+        copy.date = date;
+        copy.setUserVote(userVote);
+        copy.setLike(getLike());
+        copy.setDislike(getDislike());
+        return copy;
+    }
+
     public String getCurrentDate() {
         Date currentDate = new Date();
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         return dateFormat.format(currentDate);
     }
 
+    public int getLike() {
+        return like.get();
+    }
+
+    public void setLike(int like) {
+        this.like.set(like);
+    }
+
+    public int getDislike() {
+        return dislike.get();
+    }
+
+    public void setDislike(int dislike) {
+        this.dislike.set(dislike);
+    }
+
+    public void setUserVote(Map<String, Vote> userVote) {
+        this.userVote = new ConcurrentHashMap<>();
+        like.set(0);
+        dislike.set(0);
+        userVote.forEach(this::addUserVote);
+    }
+
     public void addUserVote(String userName, String vote) {
-        userVote.put(userName, vote);
+        addUserVote(userName, Vote.fromValue(vote));
+    }
+
+    public void addUserVote(String userName, Vote vote) {
+        if (userName == null)
+            return;
 
-        this.like = 0;
-        this.dislike = 0;
+        Vote previous = vote == null ? userVote.remove(userName) : userVote.put(userName, vote);
+        if (previous == vote)
+            return;
+
+        adjustCounter(previous, -1);
+        adjustCounter(vote, 1);
+    }
 
-        for (String key : userVote.keySet()) {
-            if (userVote.get(key).equals("like"))
-                this.like += 1;
-            else if (userVote.get(key).equals("dislike"))
-                this.dislike += 1;
-        }
+    private void adjustCounter(Vote vote, int delta) {
+        if (vote == Vote.LIKE)
+            like.addAndGet(delta);
+        else if (vote == Vote.DISLIKE)
+            dislike.addAndGet(delta);
     }
 
 }
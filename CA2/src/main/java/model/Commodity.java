@@ -1,45 +1,179 @@
 package model;
 
 import exceptions.NotInStock;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import utils.CompactCountMap;
+import utils.Ordinals;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Getter
 @Setter
 public class Commodity {
     private String id;
     private String name;
-    private String providerId;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int providerCode;
     private int price;
-    private ArrayList<String> categories = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int[] categoryCodes = NO_CATEGORIES;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long categoryBits;
+    @Getter(AccessLevel.NONE)
     private float rating;
-    private int inStock;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicInteger inStock = new AtomicInteger();
     private String image;
 
-    private Map<String, Integer> userRate = new HashMap<>();
+    @Setter(AccessLevel.NONE)
+    private Map<String, Integer> userRate = new CompactCountMap<>(CompactCountMap.USERNAME_KEYS);
     private float initRate;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicReference<RatingTotals> ratingTotals = new AtomicReference<>(RatingTotals.EMPTY);
+
+    private static final int[] NO_CATEGORIES = new int[0];
+
+    private record RatingTotals(long sum, int count) {
+        static final RatingTotals EMPTY = new RatingTotals(0, 0);
+
+        RatingTotals add(long sumDelta, int countDelta) {
+            return new RatingTotals(sum + sumDelta, count + countDelta);
+        }
+    }
+
+    public Commodity copy() {
+        Commodity copy = new Commodity();
+        copy.id = id;
+        copy.name = name;
+        copy.providerCode = providerCode;
+        copy.price = price;
+        copy.categoryCodes = categoryCodes;
+        copy.categoryBits = categoryBits;
+        copy.rating = rating;
+        copy.inStock.set(inStock.get());
+        copy.image = image;
+        copy.initRate = initRate;
+        copy.setUserRate(userRate);
+        return copy;
+    }
+
+    // Provider ids and categories are kept as codes from shared dictionaries, so every commodity of a provider or
+    // category refers to one copy of the string; the getters expand them back for callers and JSON.
+    public String getProviderId() {
+        return Ordinals.PROVIDER_IDS.valueOf(providerCode);
+    }
+
+    public void setProviderId(String providerId) {
+        providerCode = providerId == null ? 0 : Ordinals.PROVIDER_IDS.intern(providerId);
+    }
+
+    public int providerCode() {
+        return providerCode;
+    }
+
+    public ArrayList<String> getCategories() {
+        ArrayList<String> categories = new ArrayList<>(categoryCodes.length);
+        for (int code : categoryCodes)
+            categories.add(Ordinals.CATEGORIES.valueOf(code));
+        return categories;
+    }
+
+    public void setCategories(ArrayList<String> categories) {
+        int[] codes = new int[categories == null ? 0 : categories.size()];
+        long bits = 0;
+        for (int i = 0; i < codes.length; i++) {
+            String category = categories.get(i);
+            codes[i] = category == null ? 0 : Ordinals.CATEGORIES.intern(category);
+            bits |= 1L << codes[i];
+        }
+        categoryCodes = codes.length == 0 ? NO_CATEGORIES : codes;
+        categoryBits = bits;
+    }
+
+    // Codes of the commodity's categories, in order; callers must not modify the array.
+    public int[] categoryCodes() {
+        return categoryCodes;
+    }
+
+    // A commodity has few categories, so a test against a 64-bit summary of its codes rules most non-members out
+    // before the codes are compared.
+    public boolean hasCategoryCode(int code) {
+        if ((categoryBits & 1L << code) == 0)
+            return false;
+
+        for (int categoryCode : categoryCodes)
+            if (categoryCode == code)
+                return true;
+        return false;
+    }
+
+    public boolean hasCategory(String category) {
+        int code = category == null ? 0 : Ordinals.CATEGORIES.find(category);
+        return code != 0 && hasCategoryCode(code);
+    }
+
+    public int getInStock() {
+        return inStock.get();
+    }
+
+    public void setInStock(int inStock) {
+        this.inStock.set(inStock);
+    }
+
     public void updateInStock(int amount) throws NotInStock {
-        if ((this.inStock + amount) < 0)
+        if (amount >= 0)
+            release(amount);
+        else if (!tryReserve(-amount))
             throw new NotInStock();
-        this.inStock += amount;
     }
 
-    public void addRate(String username, int score) {
-        userRate.put(username, score);
-        this.calcRating();
+    public boolean tryReserve(int quantity) {
+        int current;
+        do {
+            current = inStock.get();
+            if (current < quantity)
+                return false;
+        } while (!inStock.compareAndSet(current, current - quantity));
+
+        return true;
     }
 
-    private void calcRating() {
-        float sum = 0;
-        for (Map.Entry<String, Integer> entry : this.userRate.entrySet()) {
-            sum += entry.getValue();
-        }
+    public void release(int quantity) {
+        inStock.addAndGet(quantity);
+    }
+
+    public float getRating() {
+        RatingTotals totals = ratingTotals.get();
+        if (totals.count() == 0)
+            return rating;
+
+        return (initRate + totals.sum()) / (totals.count() + 1);
+    }
+
+    public void setUserRate(Map<String, Integer> userRate) {
+        this.userRate = new CompactCountMap<>(CompactCountMap.USERNAME_KEYS);
+        ratingTotals.set(RatingTotals.EMPTY);
+        userRate.forEach(this::addRate);
+    }
+
+    public void addRate(String username, int score) {
+        if (username == null)
+            return;
 
-        this.rating = ((this.initRate + sum) / (this.userRate.size() + 1));
+        Integer previous = userRate.put(username, score);
+        long sumDelta = previous == null ? score : score - previous;
+        int countDelta = previous == null ? 1 : 0;
+        ratingTotals.updateAndGet(totals -> totals.add(sumDelta, countDelta));
     }
 }
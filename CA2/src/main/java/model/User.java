@@ -6,8 +6,8 @@ import exceptions.InvalidCreditRange;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import utils.CompactCountMap;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @Getter
@@ -21,9 +21,9 @@ public class User {
     private String address;
     private float credit;
 
-    private Map<Integer, Integer> commoditiesRates = new HashMap<>();
-    private Map<String, Integer> buyList = new HashMap<>();
-    private Map<String, Integer> purchasedList = new HashMap<>();
+    private Map<Integer, Integer> commoditiesRates = new CompactCountMap<>(CompactCountMap.INT_KEYS);
+    private Map<String, Integer> buyList = new CompactCountMap<>(CompactCountMap.COMMODITY_ID_KEYS);
+    private Map<String, Integer> purchasedList = new CompactCountMap<>(CompactCountMap.COMMODITY_ID_KEYS);
 
     public User(String username, String password, String email, String birthDate, String address) {
         this.username = username;
@@ -33,21 +33,46 @@ public class User {
         this.address = address;
     }
 
-    public void addCredit(float amount) throws InvalidCreditRange {
+    public synchronized User copy() {
+        User copy = new User(username, password, email, birthDate, address);
+        copy.credit = credit;
+        copy.setCommoditiesRates(commoditiesRates);
+        copy.setBuyList(buyList);
+        copy.setPurchasedList(purchasedList);
+        return copy;
+    }
+
+    // The setters copy into compact maps, which keep each entry as two ints rather than a node and boxed values.
+    public void setCommoditiesRates(Map<Integer, Integer> commoditiesRates) {
+        this.commoditiesRates = new CompactCountMap<>(CompactCountMap.INT_KEYS, commoditiesRates);
+    }
+
+    public void setBuyList(Map<String, Integer> buyList) {
+        this.buyList = new CompactCountMap<>(CompactCountMap.COMMODITY_ID_KEYS, buyList);
+    }
+
+    public void setPurchasedList(Map<String, Integer> purchasedList) {
+        this.purchasedList = new CompactCountMap<>(CompactCountMap.COMMODITY_ID_KEYS, purchasedList);
+    }
+
+    public static void validateCreditAmount(float amount) throws InvalidCreditRange {
         if (amount < 0)
             throw new InvalidCreditRange();
+    }
 
+    public synchronized void addCredit(float amount) throws InvalidCreditRange {
+        validateCreditAmount(amount);
         this.credit += amount;
     }
 
-    public void withdrawCredit(float amount) throws InsufficientCredit {
+    public synchronized void withdrawCredit(float amount) throws InsufficientCredit {
         if (amount > this.credit)
             throw new InsufficientCredit();
 
         this.credit -= amount;
     }
 
-    public void addBuyItem(Commodity commodity) {
+    public synchronized void addBuyItem(Commodity commodity) {
         String id = commodity.getId();
         if (this.buyList.containsKey(id)) {
             int existingQuantity = this.buyList.get(id);
@@ -56,7 +81,7 @@ public class User {
             this.buyList.put(id, 1);
     }
 
-    public void addPurchasedItem(String id, int quantity) {
+    public synchronized void addPurchasedItem(String id, int quantity) {
         if (this.purchasedList.containsKey(id)) {
             int existingQuantity = this.purchasedList.get(id);
             this.purchasedList.put(id, existingQuantity + quantity);
@@ -64,7 +89,7 @@ public class User {
             this.purchasedList.put(id, quantity);
     }
 
-    public void removeItemFromBuyList(Commodity commodity) throws CommodityIsNotInBuyList {
+    public synchronized void removeItemFromBuyList(Commodity commodity) throws CommodityIsNotInBuyList {
         String id = commodity.getId();
         if (this.buyList.containsKey(id)) {
             int existingQuantity = this.buyList.get(id);
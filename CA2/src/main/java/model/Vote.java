@@ -0,0 +1,29 @@
+package model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum Vote {
+    LIKE("like"),
+    DISLIKE("dislike");
+
+    private final String value;
+
+    Vote(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    @JsonCreator
+    public static Vote fromValue(String value) {
+        for (Vote vote : values())
+            if (vote.value.equals(value))
+                return vote;
+
+        return null;
+    }
+}
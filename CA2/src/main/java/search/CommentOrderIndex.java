@@ -0,0 +1,40 @@
+package search;
+
+import model.Comment;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Comment ids of each commodity in the order they were added, so a page is read from the cursor onwards.
+public class CommentOrderIndex {
+    private final Map<Integer, NavigableSet<Integer>> byCommodity = new ConcurrentHashMap<>();
+
+    public static SortKey keyOf(int commentId) {
+        return new SortKey(commentId, "", "");
+    }
+
+    public void add(Comment comment) {
+        byCommodity.computeIfAbsent(comment.getCommodityId(), id -> new ConcurrentSkipListSet<>()).add(comment.getId());
+    }
+
+    public void clear() {
+        byCommodity.clear();
+    }
+
+    public Page<Integer> page(int commodityId, SortKey after, int limit) {
+        NavigableSet<Integer> order = byCommodity.get(commodityId);
+        if (order == null)
+            return new Page<>(List.of(), null);
+        if (after != null)
+            order = order.tailSet((int) Math.floor(after.number()), false);
+
+        List<Integer> ids = new ArrayList<>(limit);
+        for (int id : order) {
+            if (ids.size() == limit)
+                return new Page<>(ids, keyOf(ids.get(limit - 1)));
+            ids.add(id);
+        }
+        return new Page<>(ids, null);
+    }
+}
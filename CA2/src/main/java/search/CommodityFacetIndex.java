@@ -0,0 +1,171 @@
+package search;
+
+import model.Commodity;
+import utils.IntIntMap;
+import utils.Ordinals;
+import utils.RoaringBitmap;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ordinal bitmaps per category and provider and a sorted price array for catalog filters.
+public class CommodityFacetIndex {
+    private static final RoaringBitmap NONE = new RoaringBitmap();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byProvider = new HashMap<>();
+    private final IntIntMap prices = new IntIntMap();
+    private int[] sortedPrices = new int[0];
+    private int[] sortedOrdinals = new int[0];
+    private boolean sorted = true;
+
+    public void add(Commodity commodity) {
+        if (commodity.getId() == null)
+            return;
+
+        int ordinal = Ordinals.COMMODITY_IDS.intern(commodity.getId());
+        lock.writeLock().lock();
+        try {
+            boolean known = prices.containsKey(ordinal);
+            if (!known || prices.get(ordinal, 0) != commodity.getPrice())
+                sorted = false;
+            prices.put(ordinal, commodity.getPrice());
+            if (known)
+                return;
+
+            for (int categoryCode : commodity.categoryCodes())
+                byCategory.computeIfAbsent(categoryCode, code -> new RoaringBitmap()).add(ordinal);
+            if (commodity.providerCode() != 0)
+                byProvider.computeIfAbsent(commodity.providerCode(), code -> new RoaringBitmap()).add(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            byCategory.clear();
+            byProvider.clear();
+            prices.clear();
+            sortedPrices = new int[0];
+            sortedOrdinals = new int[0];
+            sorted = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ordinals of the commodities matching the filter's price, category and provider facets, or null when it has
+    // none of them. The rating facet is left to the caller, since ratings change with every rate.
+    public RoaringBitmap match(CommodityFilter filter) {
+        if (!filter.hasPriceRange() && filter.categories() == null && filter.providerId() == null)
+            return null;
+
+        lockForQuery(filter.hasPriceRange());
+        try {
+            RoaringBitmap candidates = null;
+            if (filter.categories() != null) {
+                RoaringBitmap inCategories = NONE;
+                for (String category : filter.categories())
+                    inCategories = inCategories.or(bitmap(byCategory.get(Ordinals.CATEGORIES.find(category))));
+                candidates = inCategories;
+            }
+            if (filter.providerId() != null)
+                candidates = intersect(candidates, byProvider.get(Ordinals.PROVIDER_IDS.find(filter.providerId())));
+            if (filter.hasPriceRange())
+                candidates = restrictToPrices(candidates, filter.startPrice(), filter.endPrice());
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whether the commodity with the ordinal is in any of the categories, given by their dictionary codes.
+    public boolean inAnyCategory(int ordinal, int[] categoryCodes) {
+        lock.readLock().lock();
+        try {
+            for (int categoryCode : categoryCodes)
+                if (bitmap(byCategory.get(categoryCode)).contains(ordinal))
+                    return true;
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Takes the read lock, first re-sorting the prices under the write lock when a price query needs them.
+    private void lockForQuery(boolean needsPrices) {
+        lock.readLock().lock();
+        if (!needsPrices || sorted)
+            return;
+
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!sorted)
+                sortPrices();
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static RoaringBitmap bitmap(RoaringBitmap bitmap) {
+        return bitmap == null ? NONE : bitmap;
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap candidates, RoaringBitmap bitmap) {
+        return candidates == null ? bitmap(bitmap).copy() : candidates.and(bitmap(bitmap));
+    }
+
+    private RoaringBitmap restrictToPrices(RoaringBitmap candidates, int startPrice, int endPrice) {
+        int from = firstIndexAtLeast(startPrice);
+        int to = firstIndexAtLeast(endPrice + 1L);
+        RoaringBitmap inRange = new RoaringBitmap();
+        if (candidates != null && candidates.cardinality() < to - from) {
+            candidates.forEach(ordinal -> {
+                int price = prices.get(ordinal, 0);
+                if (price >= startPrice && price <= endPrice)
+                    inRange.add(ordinal);
+            });
+            return inRange;
+        }
+
+        // Adding in ascending order appends to the bitmap's containers instead of inserting into them.
+        int[] ordinals = Arrays.copyOfRange(sortedOrdinals, from, to);
+        Arrays.sort(ordinals);
+        for (int ordinal : ordinals)
+            inRange.add(ordinal);
+        return candidates == null ? inRange : candidates.and(inRange);
+    }
+
+    private int firstIndexAtLeast(long price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedPrices[middle] < price)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private void sortPrices() {
+        long[] entries = new long[prices.size()];
+        int[] count = {0};
+        prices.forEach((ordinal, price) -> entries[count[0]++] = ((long) price << 32) | (ordinal & 0xFFFFFFFFL));
+        Arrays.sort(entries);
+
+        sortedPrices = new int[entries.length];
+        sortedOrdinals = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            sortedPrices[i] = (int) (entries[i] >> 32);
+            sortedOrdinals[i] = (int) entries[i];
+        }
+        sorted = true;
+    }
+}
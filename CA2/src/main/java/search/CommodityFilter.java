@@ -0,0 +1,23 @@
+package search;
+
+import java.util.List;
+
+// Facets of a catalog filter; a null facet does not restrict the result.
+public record CommodityFilter(Integer startPrice, Integer endPrice, List<String> categories, String providerId,
+                              Float minRating) {
+    public static CommodityFilter byCategory(String category) {
+        return new CommodityFilter(null, null, List.of(category), null, null);
+    }
+
+    public static CommodityFilter byProvider(String providerId) {
+        return new CommodityFilter(null, null, null, providerId, null);
+    }
+
+    public boolean isEmpty() {
+        return startPrice == null && endPrice == null && categories == null && providerId == null && minRating == null;
+    }
+
+    public boolean hasPriceRange() {
+        return startPrice != null && endPrice != null;
+    }
+}
@@ -0,0 +1,103 @@
+package search;
+
+import model.Commodity;
+import utils.Ordinals;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.IntPredicate;
+
+// Commodity ids kept in each listing order, so a page is read from the cursor onwards.
+public class CommodityOrderIndex {
+    public enum Sort {
+        ID, PRICE, RATING, NAME;
+
+        public SortKey keyOf(Commodity commodity) {
+            return switch (this) {
+                case ID -> new SortKey(0, "", commodity.getId());
+                case PRICE -> new SortKey(commodity.getPrice(), "", commodity.getId());
+                case RATING -> new SortKey(commodity.getRating(), "", commodity.getId());
+                case NAME -> new SortKey(0, commodity.getName() == null ? ""
+                        : commodity.getName().toLowerCase(Locale.ROOT), commodity.getId());
+            };
+        }
+    }
+
+    private static final Sort[] SORTS = Sort.values();
+
+    private final Map<Sort, NavigableSet<SortKey>> orders = new EnumMap<>(Sort.class);
+    private final Map<String, SortKey[]> indexedKeys = new ConcurrentHashMap<>();
+
+    public CommodityOrderIndex() {
+        for (Sort sort : SORTS)
+            orders.put(sort, new ConcurrentSkipListSet<>());
+    }
+
+    // Adds the commodity, or moves it to where its current fields sort.
+    public synchronized void add(Commodity commodity) {
+        if (commodity.getId() == null)
+            return;
+
+        SortKey[] previous = indexedKeys.get(commodity.getId());
+        SortKey[] keys = new SortKey[SORTS.length];
+        for (Sort sort : SORTS) {
+            keys[sort.ordinal()] = sort.keyOf(commodity);
+            if (previous != null && !previous[sort.ordinal()].equals(keys[sort.ordinal()]))
+                orders.get(sort).remove(previous[sort.ordinal()]);
+            orders.get(sort).add(keys[sort.ordinal()]);
+        }
+        indexedKeys.put(commodity.getId(), keys);
+    }
+
+    public synchronized void clear() {
+        for (NavigableSet<SortKey> order : orders.values())
+            order.clear();
+        indexedKeys.clear();
+    }
+
+    // Ids whose key in the given order is at least the number, in that order.
+    public List<String> atLeast(Sort sort, double number) {
+        List<String> ids = new ArrayList<>();
+        for (SortKey key : orders.get(sort).tailSet(new SortKey(number, "", ""), true))
+            ids.add(key.id());
+        return ids;
+    }
+
+    // Ids of the `count` highest rated commodities and of the `count` highest rated whose ordinal is preferred,
+    // read from the top of the rating order only until both are found.
+    public Set<String> highestRated(int count, IntPredicate preferred) {
+        Set<String> ids = new LinkedHashSet<>();
+        int overall = 0;
+        int inPreferred = 0;
+        for (SortKey key : orders.get(Sort.RATING).descendingSet()) {
+            if (overall >= count && inPreferred >= count)
+                break;
+            boolean isPreferred = inPreferred < count && preferred.test(Ordinals.COMMODITY_IDS.find(key.id()));
+            if (overall < count || isPreferred)
+                ids.add(key.id());
+            overall++;
+            if (isPreferred)
+                inPreferred++;
+        }
+        return ids;
+    }
+
+    public Page<String> page(Sort sort, boolean descending, SortKey after, int limit) {
+        NavigableSet<SortKey> order = orders.get(sort);
+        if (descending)
+            order = order.descendingSet();
+        if (after != null)
+            order = order.tailSet(after, false);
+
+        List<String> ids = new ArrayList<>(limit);
+        SortKey last = null;
+        for (SortKey key : order) {
+            if (ids.size() == limit)
+                return new Page<>(ids, last);
+            ids.add(key.id());
+            last = key;
+        }
+        return new Page<>(ids, null);
+    }
+}
@@ -0,0 +1,161 @@
+package search;
+
+import model.Commodity;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+// Postings of commodity ids, resolved to commodities only for search results.
+public class CommoditySearchIndex {
+    private static final float EXACT_MATCH_SCORE = 3;
+    private static final float PREFIX_MATCH_SCORE = 2;
+    private static final float GRAM_MATCH_SCORE = 1;
+    private static final float NAME_WEIGHT = 1;
+    private static final float CATEGORY_WEIGHT = 0.5f;
+
+    private final TermDictionary nameTerms = new TermDictionary();
+    private final TermDictionary categoryTerms = new TermDictionary();
+    private final Map<String, Commodity> indexed;
+    private final Function<String, Commodity> resolver;
+
+    public CommoditySearchIndex() {
+        indexed = new ConcurrentHashMap<>();
+        resolver = indexed::get;
+    }
+
+    // Looks indexed ids up through the given function instead of keeping the commodities itself.
+    public CommoditySearchIndex(Function<String, Commodity> resolver) {
+        this.indexed = null;
+        this.resolver = resolver;
+    }
+
+    public void add(Commodity commodity) {
+        if (commodity.getId() == null)
+            return;
+        if (indexed != null)
+            indexed.putIfAbsent(commodity.getId(), commodity);
+
+        for (String token : Tokenizer.tokenize(commodity.getName()))
+            nameTerms.add(token, commodity.getId());
+
+        if (commodity.getCategories() != null)
+            for (String category : commodity.getCategories())
+                for (String token : Tokenizer.tokenize(category))
+                    categoryTerms.add(token, commodity.getId());
+    }
+
+    public void clear() {
+        if (indexed != null)
+            indexed.clear();
+        nameTerms.clear();
+        categoryTerms.clear();
+    }
+
+    public List<Commodity> search(String query) {
+        Map<String, Float> scores = new HashMap<>();
+        for (String token : Tokenizer.tokenize(query)) {
+            Map<String, Float> tokenScores = new HashMap<>();
+            nameTerms.score(token, NAME_WEIGHT, tokenScores);
+            categoryTerms.score(token, CATEGORY_WEIGHT, tokenScores);
+            tokenScores.forEach((commodityId, score) -> scores.merge(commodityId, score, Float::sum));
+        }
+
+        Map<Commodity, Float> resolved = new HashMap<>();
+        scores.forEach((commodityId, score) -> {
+            Commodity commodity = resolver.apply(commodityId);
+            if (commodity != null)
+                resolved.put(commodity, score);
+        });
+
+        List<Commodity> results = new ArrayList<>(resolved.keySet());
+        results.sort(Comparator.comparing((Commodity commodity) -> resolved.get(commodity)).reversed()
+                .thenComparing(Commodity::getName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return results;
+    }
+
+    // Ids of the commodities whose name may contain the text as a substring: those with a name term containing the
+    // text's longest token. Null when the text has no token to look up.
+    public Set<String> nameCandidates(String text) {
+        String longest = null;
+        for (String token : Tokenizer.tokenize(text))
+            if (longest == null || token.length() > longest.length())
+                longest = token;
+        return longest == null ? null : nameTerms.idsWithTermContaining(longest);
+    }
+
+    private static class TermDictionary {
+        private final NavigableMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+        private final Map<String, Set<String>> termsByGram = new ConcurrentHashMap<>();
+
+        void add(String term, String commodityId) {
+            postings.computeIfAbsent(term, k -> {
+                for (String gram : Tokenizer.grams(k))
+                    termsByGram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(k);
+                return ConcurrentHashMap.newKeySet();
+            }).add(commodityId);
+        }
+
+        void clear() {
+            postings.clear();
+            termsByGram.clear();
+        }
+
+        void score(String token, float weight, Map<String, Float> tokenScores) {
+            var prefixMatches = postings.subMap(token, true, token + Character.MAX_VALUE, true);
+            for (var entry : prefixMatches.entrySet()) {
+                float score = entry.getKey().equals(token) ? EXACT_MATCH_SCORE : PREFIX_MATCH_SCORE;
+                credit(entry.getValue(), score * weight, tokenScores);
+            }
+            if (!prefixMatches.isEmpty())
+                return;
+
+            for (String term : termsContaining(token))
+                credit(postings.get(term), GRAM_MATCH_SCORE * weight, tokenScores);
+        }
+
+        Set<String> idsWithTermContaining(String token) {
+            Set<String> ids = new HashSet<>();
+            if (token.length() < Tokenizer.GRAM_SIZE) {
+                for (var entry : postings.entrySet())
+                    if (entry.getKey().contains(token))
+                        ids.addAll(entry.getValue());
+            } else {
+                for (String term : termsContaining(token))
+                    ids.addAll(postings.get(term));
+            }
+            return ids;
+        }
+
+        private Set<String> termsContaining(String token) {
+            List<String> grams = Tokenizer.grams(token);
+            if (grams.isEmpty())
+                return Set.of();
+
+            Set<String> smallest = null;
+            for (String gram : grams) {
+                Set<String> candidates = termsByGram.get(gram);
+                if (candidates == null)
+                    return Set.of();
+                if (smallest == null || candidates.size() < smallest.size())
+                    smallest = candidates;
+            }
+
+            Set<String> result = new HashSet<>();
+            for (String term : smallest)
+                if (term.contains(token) && postings.containsKey(term))
+                    result.add(term);
+
+            return result;
+        }
+
+        private static void credit(Set<String> commodityIds, float score, Map<String, Float> tokenScores) {
+            if (commodityIds == null)
+                return;
+
+            for (String commodityId : commodityIds)
+                tokenScores.merge(commodityId, score, Math::max);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a sorted listing; next is null on the last page.
+public record Page<T>(List<T> items, SortKey next) {
+    public <R> Page<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = new ArrayList<>(items.size());
+        for (T item : items) {
+            R result = mapper.apply(item);
+            if (result != null)
+                mapped.add(result);
+        }
+        return new Page<>(mapped, next);
+    }
+}
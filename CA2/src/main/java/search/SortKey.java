@@ -0,0 +1,31 @@
+package search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position of a record in a sorted listing, encoded as the page cursor.
+public record SortKey(double number, String text, String id) implements Comparable<SortKey> {
+    @Override
+    public int compareTo(SortKey other) {
+        int result = Double.compare(number, other.number);
+        if (result == 0)
+            result = text.compareTo(other.text);
+        if (result == 0)
+            result = id.compareTo(other.id);
+        return result;
+    }
+
+    // The order name is kept in the cursor so that a cursor is not accepted for a listing in a different order.
+    public String encode(String order) {
+        String value = order + "\n" + number + "\n" + id + "\n" + text;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SortKey decode(String cursor, String order) {
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = value.split("\n", 4);
+        if (parts.length != 4 || !parts[0].equals(order))
+            throw new IllegalArgumentException("Cursor does not belong to this listing");
+        return new SortKey(Double.parseDouble(parts[1]), parts[3], parts[2]);
+    }
+}
@@ -1,42 +1,272 @@
 package service;
 
-import database.DataParser;
-import database.Database;
+import database.*;
 import model.Comment;
 import model.Commodity;
 import model.Provider;
 import model.User;
+import model.Vote;
 import exceptions.*;
+import search.CommodityFilter;
+import search.CommodityOrderIndex;
+import search.Page;
+import search.SortKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.*;
 
 
 public class Baloot {
+    private static final Logger logger = LoggerFactory.getLogger(Baloot.class);
+    private static final int DATA_LOADER_THREADS = 4;
+    private static final String SNAPSHOT_FILE_NAME = "snapshot.bin";
+    private static final String WAL_DIRECTORY_NAME = "wal";
+
     private static Baloot instance;
+    private final SuggestionEngine suggestionEngine = new SuggestionEngine();
+    private final CheckoutEngine checkoutEngine = new CheckoutEngine();
+    private final ResponseCache responseCache = new ResponseCache(ResponseCache.configuredMaxBytes());
+    private final Map<String, Long> startupTimings = new ConcurrentSkipListMap<>();
+    private WriteAheadLog writeAheadLog;
+    private Compactor compactor;
+    private boolean dataLoaded;
 
     private Baloot() {
         fetchAndStoreData();
     }
 
-    public static Baloot getInstance() {
+    public static synchronized Baloot getInstance() {
         if (instance == null) {
             instance = new Baloot();
         }
         return instance;
     }
 
-    public void fetchAndStoreData() {
-        DataParser dataParser = new DataParser(Database.getInstance());
+    public synchronized void fetchAndStoreData() {
+        if (dataLoaded)
+            return;
+
+        long start = System.nanoTime();
+        Database database = Database.getInstance();
+        StorageBackend storage = database.getStorage();
+        DataParser dataParser = new DataParser();
+        Path snapshotFile = StorageConfig.storageDirectory().resolve(SNAPSHOT_FILE_NAME);
 
         try {
-            dataParser.getUsersList();
-            dataParser.getProvidersList();
-            dataParser.getCommoditiesList();
-            dataParser.getCommentsList();
+            PersistentStorage persistent = storage instanceof PersistentStorage p ? p : null;
+            long startSequence = persistent != null
+                    ? openPersistentStorage(persistent, database, dataParser)
+                    : loadIntoMemory(database, dataParser, snapshotFile);
+
+            long replayStart = System.nanoTime();
+            writeAheadLog = WriteAheadLog.open(StorageConfig.storageDirectory().resolve(WAL_DIRECTORY_NAME),
+                    startSequence, StorageConfig.walCommitWindow(), StorageConfig.walBatchSize(),
+                    entry -> replay(entry.mutation()));
+            suggestionEngine.clear();
+            responseCache.clear();
+            recordStartupPhase("wal.replay", replayStart);
+
+            compactor = persistent != null
+                    ? new Compactor(persistent, writeAheadLog, startSequence)
+                    : new Compactor(database::snapshot, writeAheadLog, snapshotFile, startSequence);
+            compactor.start(StorageConfig.compactionInterval());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                compactor.close();
+                writeAheadLog.close();
+                try {
+                    storage.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close storage", e);
+                }
+            }, "wal-shutdown"));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+
+        recordStartupPhase("total", start);
+        dataLoaded = true;
+        logger.info("Data loaded, startup timings (ms): {}", startupTimings);
+    }
+
+    // Returns the sequence number of the last logged mutation the loaded data reflects.
+    private long loadIntoMemory(Database database, DataParser dataParser, Path snapshotFile) throws IOException {
+        SnapshotCodec.Snapshot snapshot = readUsableSnapshot(snapshotFile, dataParser);
+        if (snapshot != null) {
+            long indexStart = System.nanoTime();
+            database.load(snapshot.dataSet());
+            recordStartupPhase("index", indexStart);
+            return snapshot.sequence();
+        }
+
+        loadSeedData(database, dataParser);
+        long snapshotStart = System.nanoTime();
+        database.writeSnapshot(snapshotFile);
+        recordStartupPhase("snapshot.write", snapshotStart);
+        return 0;
+    }
+
+    // A persistent backend opens with its records already in place; only an empty one is filled from the seed data.
+    private long openPersistentStorage(PersistentStorage storage, Database database, DataParser dataParser)
+            throws IOException {
+        if (storage.checkpointSequence() >= 0)
+            return storage.checkpointSequence();
+
+        loadSeedData(database, dataParser);
+        storage.checkpoint(0);
+        return 0;
+    }
+
+    // A snapshot that only mirrors the seed data is rebuilt when the seed files change; one written by compaction
+    // holds logged mutations that exist nowhere else, so it is always used.
+    private SnapshotCodec.Snapshot readUsableSnapshot(Path snapshotFile, DataParser dataParser) throws IOException {
+        if (!Files.exists(snapshotFile))
+            return null;
+
+        long start = System.nanoTime();
+        try {
+            SnapshotCodec.Snapshot snapshot = SnapshotCodec.readSnapshot(snapshotFile);
+            if (snapshot.sequence() == 0
+                    && Files.getLastModifiedTime(snapshotFile).compareTo(dataParser.lastModified()) <= 0)
+                return null;
+
+            return snapshot;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable snapshot {}", snapshotFile, e);
+            return null;
+        } finally {
+            recordStartupPhase("snapshot.read", start);
+        }
+    }
+
+    // The four files are parsed in parallel, each record going into Database as soon as it is read.
+    private void loadSeedData(Database database, DataParser dataParser) {
+        database.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(DATA_LOADER_THREADS);
+        try {
+            CompletableFuture.allOf(
+                    loadAsync("load.users", () -> dataParser.streamUsers(database::addUser), executor),
+                    loadAsync("load.providers", () -> dataParser.streamProviders(database::addProvider), executor),
+                    loadAsync("load.commodities", () -> dataParser.streamCommodities(database::addCommodity),
+                            executor),
+                    loadAsync("load.comments", () -> dataParser.streamComments(database::addComment), executor)
+            ).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public Map<String, Long> getStartupTimings() {
+        return Collections.unmodifiableMap(startupTimings);
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    // Drops every cached response that embeds the commodity; called after the change is applied.
+    private void invalidateCachedCommodity(Commodity commodity) {
+        responseCache.invalidate(ResponseCache.commoditiesKey());
+        responseCache.invalidate(ResponseCache.commodityKey(commodity.getId()));
+        if (commodity.getProviderId() != null)
+            responseCache.invalidate(ResponseCache.providerCommoditiesKey(commodity.getProviderId()));
+    }
+
+    private <T> CompletableFuture<T> loadAsync(String phase, Callable<T> loader, ExecutorService executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return loader.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                recordStartupPhase(phase, start);
+            }
+        }, executor);
+    }
+
+    private void recordStartupPhase(String phase, long startNanos) {
+        startupTimings.put(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private void replay(Mutation mutation) {
+        Database database = Database.getInstance();
+        try {
+            if (mutation instanceof Mutation.Signup m)
+                database.addUser(new User(m.username(), m.password(), m.email(), m.birthDate(), m.address()));
+            else if (mutation instanceof Mutation.Credit m) {
+                User user = getUserById(m.username());
+                user.addCredit(m.amount());
+                database.updateUser(user);
+            } else if (mutation instanceof Mutation.BuyListAdd m) {
+                User user = getUserById(m.username());
+                user.addBuyItem(getCommodityById(m.commodityId()));
+                database.updateUser(user);
+            } else if (mutation instanceof Mutation.BuyListRemove m) {
+                User user = getUserById(m.username());
+                user.removeItemFromBuyList(getCommodityById(m.commodityId()));
+                database.updateUser(user);
+            } else if (mutation instanceof Mutation.Purchase m)
+                replayPurchase(getUserById(m.username()), m);
+            else if (mutation instanceof Mutation.Rate m) {
+                Commodity commodity = getCommodityById(m.commodityId());
+                commodity.addRate(m.username(), m.score());
+                database.updateCommodity(commodity);
+            } else if (mutation instanceof Mutation.AddComment m) {
+                Comment comment = new Comment(m.id(), m.userEmail(), m.username(), m.commodityId(), m.text());
+                comment.setDate(m.date());
+                database.addComment(comment);
+            } else if (mutation instanceof Mutation.CommentVote m) {
+                Comment comment = getCommentById(m.commentId());
+                comment.addUserVote(m.username(), m.vote());
+                database.updateComment(comment);
+            }
+        } catch (NotExistentUser | NotExistentCommodity | NotExistentComment | InvalidCreditRange
+                 | CommodityIsNotInBuyList e) {
+            logger.warn("Skipping logged mutation that no longer applies: {}", mutation, e);
+        }
+    }
+
+    // Credit is adjusted without the sufficiency check so the result does not depend on where a concurrent
+    // credit deposit landed in the log relative to the purchase.
+    private void replayPurchase(User user, Mutation.Purchase purchase) {
+        Database database = Database.getInstance();
+        user.setCredit(user.getCredit() - purchase.amount());
+        for (var item : purchase.items().entrySet()) {
+            Commodity commodity = database.getCommodity(item.getKey());
+            if (commodity != null) {
+                commodity.setInStock(commodity.getInStock() - item.getValue());
+                database.updateCommodity(commodity);
+            }
+            user.addPurchasedItem(item.getKey(), item.getValue());
+        }
+        user.setBuyList(new HashMap<>());
+        database.updateUser(user);
+    }
+
+    // Refuses the mutation before anything is changed once the log can no longer persist it, so memory never
+    // runs ahead of what a restart would recover.
+    private Compactor.Guard beginMutation() {
+        writeAheadLog.checkWritable();
+        return compactor.guard();
+    }
+
+    // Mutations are applied and appended inside the compactor's guard while the lock that orders them in memory
+    // is still held, so the log replays them in the order they were applied; the caller then waits outside the
+    // lock for the group commit.
+    private void awaitDurable(CompletableFuture<Long> durable) {
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Failed to persist mutation", e.getCause());
+        }
     }
 
     public void login(String userId, String password) throws NotExistentUser, IncorrectPassword {
@@ -50,7 +280,16 @@ public class Baloot {
         User user = getUserById(userId);
         Commodity commodity = getCommodityById(commodityId);
 
-        user.addBuyItem(commodity);
+        CompletableFuture<Long> durable;
+        synchronized (user) {
+            try (Compactor.Guard guard = beginMutation()) {
+                guard.preserve(user);
+                user.addBuyItem(commodity);
+                Database.getInstance().updateUser(user);
+                durable = writeAheadLog.append(new Mutation.BuyListAdd(user.getUsername(), commodity.getId()));
+            }
+        }
+        awaitDurable(durable);
     }
 
     public void removeCommodityFromUserBuyList(String userId, String commodityId)
@@ -63,7 +302,16 @@ public class Baloot {
         User user = getUserById(userId);
         Commodity commodity = getCommodityById(commodityId);
 
-        user.removeItemFromBuyList(commodity);
+        CompletableFuture<Long> durable;
+        synchronized (user) {
+            try (Compactor.Guard guard = beginMutation()) {
+                guard.preserve(user);
+                user.removeItemFromBuyList(commodity);
+                Database.getInstance().updateUser(user);
+                durable = writeAheadLog.append(new Mutation.BuyListRemove(user.getUsername(), commodity.getId()));
+            }
+        }
+        awaitDurable(durable);
     }
 
     public float getCurrentBuyListPrice(User user) {
@@ -80,115 +328,154 @@ public class Baloot {
     }
 
     public void withdrawPayableAmount(User user) throws InsufficientCredit, NotInStock {
-        float amount = getCurrentBuyListPrice(user);
-        user.withdrawCredit(amount);
+        CompletableFuture<Long> durable;
+        List<Commodity> commodities = new ArrayList<>();
+        Database database = Database.getInstance();
+        synchronized (user) {
+            durable = checkoutEngine.holdingLines(user, database::getCommodity, lines -> {
+                try (Compactor.Guard guard = beginMutation()) {
+                    Map<String, Integer> items = new LinkedHashMap<>(user.getBuyList());
+                    guard.preserve(user);
+                    for (Commodity commodity : lines.keySet())
+                        guard.preserve(commodity);
+                    float amount = checkoutEngine.apply(user, lines);
+                    commodities.addAll(lines.keySet());
+                    database.updateUser(user);
+                    for (Commodity commodity : commodities)
+                        database.updateCommodity(commodity);
+                    return writeAheadLog.append(new Mutation.Purchase(user.getUsername(), amount, items));
+                }
+            });
+        }
+        for (Commodity commodity : commodities)
+            invalidateCachedCommodity(commodity);
+        awaitDurable(durable);
+    }
 
-        for (var entry : new ArrayList<>(user.getBuyList().entrySet())) {
-            user.addPurchasedItem(entry.getKey(), entry.getValue());
-            try {
-                Commodity commodity = getCommodityById(entry.getKey());
-                commodity.updateInStock(-entry.getValue());
-            } catch (NotExistentCommodity ignored) {
-            } catch (NotInStock e) {
-                throw new NotInStock();
+    public void addCredit(User user, float amount) throws InvalidCreditRange {
+        CompletableFuture<Long> durable;
+        synchronized (user) {
+            try (Compactor.Guard guard = beginMutation()) {
+                guard.preserve(user);
+                user.addCredit(amount);
+                Database.getInstance().updateUser(user);
+                durable = writeAheadLog.append(new Mutation.Credit(user.getUsername(), amount));
             }
         }
-
-        user.setBuyList(new HashMap<>());
+        awaitDurable(durable);
     }
 
     public User getUserById(String userId) throws NotExistentUser {
-        for (User user : Database.getInstance().getUsers())
-            if (user.getUsername().equals(userId))
-                return user;
+        User user = Database.getInstance().getUser(userId);
+        if (user == null)
+            throw new NotExistentUser();
 
-        throw new NotExistentUser();
+        return user;
     }
 
     public Provider getProviderById(String providerId) throws NotExistentProvider {
-        for (Provider provider : Database.getInstance().getProviders())
-            if (Objects.equals(provider.getId(), providerId))
-                return provider;
+        Provider provider = Database.getInstance().getProvider(providerId);
+        if (provider == null)
+            throw new NotExistentProvider();
 
-        throw new NotExistentProvider();
+        return provider;
     }
 
     public Commodity getCommodityById(String commodityId) throws NotExistentCommodity {
-        for (Commodity commodity : Database.getInstance().getCommodities())
-            if (Objects.equals(commodity.getId(), commodityId))
-                return commodity;
+        Commodity commodity = Database.getInstance().getCommodity(commodityId);
+        if (commodity == null)
+            throw new NotExistentCommodity();
 
-        throw new NotExistentCommodity();
+        return commodity;
     }
 
     public ArrayList<Commodity> getCommodities() {
         return Database.getInstance().getCommodities();
     }
 
-    public ArrayList<Commodity> getCommoditiesProvidedByProvider(String providerId) {
-        ArrayList<Commodity> commodities = new ArrayList<>();
-        for (Commodity commodity : Database.getInstance().getCommodities())
-            if (Objects.equals(commodity.getProviderId(), providerId))
-                commodities.add(commodity);
+    public Page<Commodity> getCommoditiesPage(CommodityOrderIndex.Sort sort, boolean descending, SortKey after,
+                                              int limit) {
+        Database database = Database.getInstance();
+        return database.getOrderIndex().page(sort, descending, after, limit).map(database::getCommodity);
+    }
 
-        return commodities;
+    public Page<Commodity> getProviderCommoditiesPage(String providerId, CommodityOrderIndex.Sort sort,
+                                                      boolean descending, SortKey after, int limit) {
+        return Database.getInstance().getProviderCommoditiesPage(providerId, sort, descending, after, limit);
     }
 
-    public ArrayList<Comment> getCommentsForCommodity(int commodityId) {
-        ArrayList<Comment> comments = new ArrayList<>();
-        for (Comment comment : Database.getInstance().getComments())
-            if (comment.getCommodityId() == commodityId)
-                comments.add(comment);
+    // Comments are listed in the order they were added.
+    public Page<Comment> getCommentsPage(int commodityId, SortKey after, int limit) {
+        return Database.getInstance().getCommentsPage(commodityId, after, limit);
+    }
+
+    // ETags of the read endpoints; read them before the data they describe, so a tag is never newer than it.
+    public String getCommoditiesEtag() {
+        return Database.getInstance().getVersions().catalogTag();
+    }
 
-        return comments;
+    public String getCommodityEtag(String commodityId) {
+        return Database.getInstance().getVersions().commodityTag(commodityId);
+    }
+
+    public String getCommentsEtag(int commodityId) {
+        return Database.getInstance().getVersions().commentsTag(commodityId);
+    }
+
+    public String getProviderEtag(String providerId) {
+        return Database.getInstance().getVersions().providerTag(providerId);
+    }
+
+    public String getProviderCommoditiesEtag(String providerId) {
+        return Database.getInstance().getVersions().providerCatalogTag(providerId);
+    }
+
+    public ArrayList<Commodity> getCommoditiesProvidedByProvider(String providerId) {
+        return new ArrayList<>(Database.getInstance().getCommoditiesByProvider(providerId));
+    }
+
+    public ArrayList<Comment> getCommentsForCommodity(int commodityId) {
+        return new ArrayList<>(Database.getInstance().getCommentsByCommodity(commodityId));
     }
 
     public Comment getCommentById(int commentId) throws NotExistentComment {
-        for (Comment comment : Database.getInstance().getComments())
-            if (comment.getId() == commentId)
-                return comment;
+        Comment comment = Database.getInstance().getComment(commentId);
+        if (comment == null)
+            throw new NotExistentComment();
 
-        throw new NotExistentComment();
+        return comment;
     }
 
 
     public ArrayList<Commodity> filterCommoditiesByCategory(String category) {
-        ArrayList<Commodity> result = new ArrayList<>();
-        for (Commodity commodity : Database.getInstance().getCommodities())
-            if (commodity.getCategories().contains(category))
-                result.add(commodity);
+        return new ArrayList<>(Database.getInstance().getCommoditiesByCategory(category));
+    }
 
-        return result;
+    public ArrayList<Commodity> filterCommodities(CommodityFilter filter)
+            throws MissingFilter, MissingStartOrEndPrice, InvalidPriceRange {
+        if (filter.isEmpty())
+            throw new MissingFilter();
+        if ((filter.startPrice() == null) != (filter.endPrice() == null))
+            throw new MissingStartOrEndPrice();
+        if (filter.hasPriceRange() && (filter.startPrice() < 0 || filter.startPrice() > filter.endPrice()))
+            throw new InvalidPriceRange();
+        return new ArrayList<>(Database.getInstance().filterCommodities(filter));
     }
 
     public ArrayList<Commodity> filterCommoditiesByName(String name) {
-        ArrayList<Commodity> result = new ArrayList<>();
-        for (Commodity commodity : Database.getInstance().getCommodities())
-            if (commodity.getName().contains(name))
-                result.add(commodity);
+        return new ArrayList<>(Database.getInstance().filterCommoditiesByName(name));
+    }
 
-        return result;
+    public ArrayList<Commodity> searchCommoditiesByText(String query) {
+        return new ArrayList<>(Database.getInstance().getSearchIndex().search(query));
     }
 
     public ArrayList<Commodity> filterCommoditiesByProviderName(String name) {
-        String providerId = "";
-        for (Provider provider : Database.getInstance().getProviders()) {
-            if (provider.getName().equals(name)) {
-                providerId = provider.getId();
-                break;
-            }
-        }
-
-        ArrayList<Commodity> result = new ArrayList<>();
-
-        if (Objects.equals(providerId, ""))
-            return result;
+        String providerId = Database.getInstance().getProviderIdByName(name);
+        if (providerId == null)
+            return new ArrayList<>();
 
-        for (Commodity commodity : Database.getInstance().getCommodities())
-            if (Objects.equals(commodity.getProviderId(), providerId))
-                result.add(commodity);
-
-        return result;
+        return getCommoditiesProvidedByProvider(providerId);
     }
 
 
@@ -203,55 +490,71 @@ public class Baloot {
     }
 
     public void addUser(User user) throws UsernameAlreadyTaken {
-        for (User user1 : Database.getInstance().getUsers())
-            if (user1.getUsername().equals(user.getUsername()))
-                throw new UsernameAlreadyTaken();
-
-        Database.getInstance().addUser(user);
+        CompletableFuture<Long> durable;
+        synchronized (user) {
+            try (Compactor.Guard ignored = beginMutation()) {
+                if (!Database.getInstance().addUser(user))
+                    throw new UsernameAlreadyTaken();
+                durable = writeAheadLog.append(new Mutation.Signup(user.getUsername(), user.getPassword(),
+                        user.getEmail(), user.getBirthDate(), user.getAddress()));
+            }
+        }
+        awaitDurable(durable);
     }
 
     public void addComment(Comment comment) {
-        Database.getInstance().addComment(comment);
+        CompletableFuture<Long> durable;
+        synchronized (comment) {
+            try (Compactor.Guard ignored = beginMutation()) {
+                Database.getInstance().addComment(comment);
+                durable = writeAheadLog.append(new Mutation.AddComment(comment.getId(), comment.getUserEmail(),
+                        comment.getUsername(), comment.getCommodityId(), comment.getText(), comment.getDate()));
+            }
+        }
+        responseCache.invalidate(ResponseCache.commentsKey(comment.getCommodityId()));
+        awaitDurable(durable);
     }
 
-    public int generateCommentId() {
-        return Database.getInstance().getComments().size();
+    public void voteComment(Comment comment, String username, Vote vote) {
+        CompletableFuture<Long> durable;
+        synchronized (comment) {
+            try (Compactor.Guard guard = beginMutation()) {
+                guard.preserve(comment);
+                comment.addUserVote(username, vote);
+                Database.getInstance().updateComment(comment);
+                durable = writeAheadLog.append(new Mutation.CommentVote(comment.getId(), username, vote));
+            }
+        }
+        responseCache.invalidate(ResponseCache.commentsKey(comment.getCommodityId()));
+        awaitDurable(durable);
     }
 
-    public int isInSimilarCategoryWithFirstCommodity(Commodity c1, Commodity c2) {
-        for (String category : c2.getCategories())
-            if (c1.getCategories().contains(category))
-                return 1;
-
-        return 0;
+    public int generateCommentId() {
+        return Database.getInstance().nextCommentId();
     }
 
-    public ArrayList<Commodity> suggestSimilarCommodities(Commodity commodity) {
-        int MAX_NUMBER_OF_COMMODITY_SUGGESTIONS = 4;
-        ArrayList<Commodity> results = new ArrayList<>();
-        Hashtable<Commodity, Float> commodityScore = new Hashtable<>();
-
-        for (Commodity commodity1 : Database.getInstance().getCommodities()) {
-            if (commodity == commodity1)
-                continue;
-
-            float score = 11 * isInSimilarCategoryWithFirstCommodity(commodity, commodity1) + commodity1.getRating();
-            commodityScore.put(commodity1, score);
+    public void rateCommodity(Commodity commodity, String username, int rate) {
+        CompletableFuture<Long> durable;
+        synchronized (commodity) {
+            try (Compactor.Guard guard = beginMutation()) {
+                guard.preserve(commodity);
+                commodity.addRate(username, rate);
+                Database.getInstance().updateCommodity(commodity);
+                durable = writeAheadLog.append(new Mutation.Rate(commodity.getId(), username, rate));
+            }
         }
+        suggestionEngine.invalidate(commodity);
+        invalidateCachedCommodity(commodity);
+        awaitDurable(durable);
+    }
 
-        List<Map.Entry<Commodity, Float>> list = new ArrayList<>(commodityScore.entrySet());
-        list.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
-
-        int count = 0;
-        for (Map.Entry<Commodity, Float> entry : list) {
-            results.add(entry.getKey());
-
-            count += 1;
-            if (count >= MAX_NUMBER_OF_COMMODITY_SUGGESTIONS)
-                break;
-        }
+    public int isInSimilarCategoryWithFirstCommodity(Commodity c1, Commodity c2) {
+        return suggestionEngine.isInSimilarCategory(c1, c2) ? 1 : 0;
+    }
 
-        return results;
+    public ArrayList<Commodity> suggestSimilarCommodities(Commodity commodity) {
+        return suggestionEngine.suggest(commodity, () -> Database.getInstance().similarityCandidates(commodity,
+                SuggestionEngine.CANDIDATES_PER_GROUP));
     }
 
 }
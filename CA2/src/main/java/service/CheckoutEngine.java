@@ -0,0 +1,79 @@
+package service;
+
+import exceptions.InsufficientCredit;
+import exceptions.NotInStock;
+import model.Commodity;
+import model.User;
+
+import java.util.*;
+import java.util.function.Function;
+
+public class CheckoutEngine {
+    public interface LinesAction<T> {
+        T run(Map<Commodity, Integer> lines) throws InsufficientCredit, NotInStock;
+    }
+
+    public float checkout(User user, Function<String, Commodity> commodities) throws InsufficientCredit, NotInStock {
+        synchronized (user) {
+            return holdingLines(user, commodities, lines -> apply(user, lines));
+        }
+    }
+
+    // Runs the action holding the lock of every commodity in the user's buy list, taken in id order so that
+    // concurrent checkouts cannot deadlock and none of them sees another one's lines half reserved.
+    public <T> T holdingLines(User user, Function<String, Commodity> commodities, LinesAction<T> action)
+            throws InsufficientCredit, NotInStock {
+        Map<Commodity, Integer> lines = new LinkedHashMap<>();
+        for (var entry : new TreeMap<>(user.getBuyList()).entrySet()) {
+            Commodity commodity = commodities.apply(entry.getKey());
+            if (commodity != null)
+                lines.put(commodity, entry.getValue());
+        }
+        return holding(new ArrayList<>(lines.keySet()), 0, lines, action);
+    }
+
+    private <T> T holding(List<Commodity> locks, int next, Map<Commodity, Integer> lines, LinesAction<T> action)
+            throws InsufficientCredit, NotInStock {
+        if (next == locks.size())
+            return action.run(lines);
+        synchronized (locks.get(next)) {
+            return holding(locks, next + 1, lines, action);
+        }
+    }
+
+    // Must be called from holdingLines with the user's lock held.
+    public float apply(User user, Map<Commodity, Integer> lines) throws InsufficientCredit, NotInStock {
+        Map<String, Integer> buyList = new HashMap<>(user.getBuyList());
+        float amount = 0;
+        for (var line : lines.entrySet())
+            amount += line.getKey().getPrice() * line.getValue();
+
+        reserveAndPay(user, lines, amount);
+
+        for (var entry : buyList.entrySet())
+            user.addPurchasedItem(entry.getKey(), entry.getValue());
+        user.setBuyList(new HashMap<>());
+        return amount;
+    }
+
+    private void reserveAndPay(User user, Map<Commodity, Integer> lines, float amount)
+            throws InsufficientCredit, NotInStock {
+        for (var line : lines.entrySet())
+            if (line.getKey().getInStock() < line.getValue())
+                throw new NotInStock();
+
+        List<Map.Entry<Commodity, Integer>> reserved = new ArrayList<>();
+        try {
+            for (var line : lines.entrySet()) {
+                if (!line.getKey().tryReserve(line.getValue()))
+                    throw new NotInStock();
+                reserved.add(line);
+            }
+            user.withdrawCredit(amount);
+        } catch (NotInStock | InsufficientCredit e) {
+            for (var line : reserved)
+                line.getKey().release(line.getValue());
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Size-bounded cache of serialized read responses with TinyLFU admission.
+public class ResponseCache {
+    private static final String MAX_BYTES_PROPERTY = "baloot.cache.max-bytes";
+    private static final long DEFAULT_MAX_BYTES = 64L << 20;
+    private static final int STAMP_STRIPES = 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch = new FrequencySketch(1 << 14);
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long sizeBytes;
+
+    // The ETag is kept with the body it was sent with, and is null when the response had none.
+    public record Entry(String etag, byte[] body) {
+    }
+
+    public ResponseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static String commoditiesKey() {
+        return "/commodities";
+    }
+
+    public static String commodityKey(String commodityId) {
+        return "/commodities/" + commodityId;
+    }
+
+    public static String commentsKey(int commodityId) {
+        return "/commodities/" + commodityId + "/comment";
+    }
+
+    public static String providerKey(String providerId) {
+        return "/providers/" + providerId;
+    }
+
+    public static String providerCommoditiesKey(String providerId) {
+        return "/providers/" + providerId + "/commodities";
+    }
+
+    public static long configuredMaxBytes() {
+        return Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+    }
+
+    public Entry get(String key) {
+        sketch.increment(key);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        (entry == null ? misses : hits).increment();
+        return entry;
+    }
+
+    // Read before computing a response that may be put.
+    public long stamp(String key) {
+        return stamps.get(stripe(key));
+    }
+
+    public synchronized void put(String key, long stamp, String etag, byte[] body) {
+        if (stamps.get(stripe(key)) != stamp || body.length > maxBytes) {
+            rejections.increment();
+            return;
+        }
+
+        Entry previous = entries.remove(key);
+        if (previous != null)
+            sizeBytes -= previous.body().length;
+
+        List<String> victims = new ArrayList<>();
+        long freed = 0;
+        int frequency = sketch.frequency(key);
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (sizeBytes - freed + body.length > maxBytes) {
+            Map.Entry<String, Entry> victim = eldest.next();
+            if (sketch.frequency(victim.getKey()) >= frequency) {
+                rejections.increment();
+                return;
+            }
+            victims.add(victim.getKey());
+            freed += victim.getValue().body().length;
+        }
+
+        for (String victim : victims)
+            entries.remove(victim);
+        evictions.add(victims.size());
+        sizeBytes -= freed;
+        entries.put(key, new Entry(etag, body));
+        sizeBytes += body.length;
+    }
+
+    public void invalidate(String key) {
+        stamps.incrementAndGet(stripe(key));
+        synchronized (this) {
+            Entry removed = entries.remove(key);
+            if (removed != null)
+                sizeBytes -= removed.body().length;
+        }
+        invalidations.increment();
+    }
+
+    public void clear() {
+        for (int i = 0; i < STAMP_STRIPES; i++)
+            stamps.incrementAndGet(i);
+        synchronized (this) {
+            entries.clear();
+            sizeBytes = 0;
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("rejections", rejections.sum());
+        stats.put("invalidations", invalidations.sum());
+        synchronized (this) {
+            stats.put("entries", (long) entries.size());
+            stats.put("bytes", sizeBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STAMP_STRIPES;
+    }
+
+    // Count-min sketch of 4-bit counters, halved after every sampleSize increments so that frequencies reflect
+    // recent traffic.
+    private static class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+
+        private final byte[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int width) {
+            counters = new byte[width];
+            mask = width - 1;
+            sampleSize = width * 10;
+        }
+
+        synchronized void increment(String key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < DEPTH; i++) {
+                int index = index(hash, i);
+                if (counters[index] < MAX_COUNT) {
+                    counters[index] += 1;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < counters.length; i++)
+                    counters[i] >>= 1;
+                additions /= 2;
+            }
+        }
+
+        synchronized int frequency(String key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < DEPTH; i++)
+                frequency = Math.min(frequency, counters[index(hash, i)]);
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash + row * 0x9E3779B9) * 0x85EBCA6B;
+            return (h ^ (h >>> 15)) & mask;
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x45D9F3B;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package service;
+
+import model.Commodity;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class SuggestionEngine {
+    private static final int MAX_NUMBER_OF_COMMODITY_SUGGESTIONS = 4;
+    private static final float SIMILAR_CATEGORY_SCORE = 11;
+    // The commodity itself may be among the highest rated, so one more than is suggested.
+    static final int CANDIDATES_PER_GROUP = MAX_NUMBER_OF_COMMODITY_SUGGESTIONS + 1;
+
+    private final Map<String, BitSet> categoryVectors = new ConcurrentHashMap<>();
+    private final Map<String, List<ScoredCommodity>> suggestions = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private record ScoredCommodity(Commodity commodity, float score) {
+    }
+
+    public boolean isInSimilarCategory(Commodity c1, Commodity c2) {
+        return categoryVector(c1).intersects(categoryVector(c2));
+    }
+
+    // The candidates are only read when the suggestions are not cached.
+    public ArrayList<Commodity> suggest(Commodity commodity, Supplier<? extends Collection<Commodity>> candidates) {
+        List<ScoredCommodity> cached = suggestions.get(commodity.getId());
+        if (cached == null) {
+            long versionBefore = version.get();
+            cached = computeSuggestions(commodity, candidates.get());
+            if (version.get() == versionBefore)
+                suggestions.put(commodity.getId(), cached);
+        }
+
+        ArrayList<Commodity> results = new ArrayList<>(cached.size());
+        for (ScoredCommodity scored : cached)
+            results.add(scored.commodity());
+
+        return results;
+    }
+
+    // Must be called after a commodity's rating or categories change, or after it is added to the catalog.
+    public void invalidate(Commodity changed) {
+        version.incrementAndGet();
+        categoryVectors.remove(changed.getId());
+        suggestions.remove(changed.getId());
+
+        suggestions.entrySet().removeIf(entry -> {
+            List<ScoredCommodity> cached = entry.getValue();
+            for (ScoredCommodity scored : cached)
+                if (scored.commodity().getId().equals(changed.getId()))
+                    return true;
+
+            BitSet vector = categoryVectors.get(entry.getKey());
+            return vector == null || cached.size() < MAX_NUMBER_OF_COMMODITY_SUGGESTIONS
+                    || score(vector, changed) >= cached.get(cached.size() - 1).score();
+        });
+    }
+
+    public void clear() {
+        version.incrementAndGet();
+        categoryVectors.clear();
+        suggestions.clear();
+    }
+
+    private List<ScoredCommodity> computeSuggestions(Commodity commodity, Collection<Commodity> catalog) {
+        PriorityQueue<ScoredCommodity> topK = new PriorityQueue<>(
+                MAX_NUMBER_OF_COMMODITY_SUGGESTIONS + 1, Comparator.comparingDouble(ScoredCommodity::score));
+        BitSet vector = categoryVector(commodity);
+
+        for (Commodity candidate : catalog) {
+            if (candidate.getId().equals(commodity.getId()))
+                continue;
+
+            float score = score(vector, candidate);
+            if (topK.size() < MAX_NUMBER_OF_COMMODITY_SUGGESTIONS) {
+                topK.add(new ScoredCommodity(candidate, score));
+            } else if (score > topK.peek().score()) {
+                topK.poll();
+                topK.add(new ScoredCommodity(candidate, score));
+            }
+        }
+
+        List<ScoredCommodity> results = new ArrayList<>(topK);
+        results.sort(Comparator.comparingDouble(ScoredCommodity::score).reversed());
+        return results;
+    }
+
+    private float score(BitSet vector, Commodity candidate) {
+        return (vector.intersects(categoryVector(candidate)) ? SIMILAR_CATEGORY_SCORE : 0) + candidate.getRating();
+    }
+
+    private BitSet categoryVector(Commodity commodity) {
+        return categoryVectors.computeIfAbsent(commodity.getId(), id -> {
+            BitSet vector = new BitSet();
+            for (int code : commodity.categoryCodes())
+                if (code != 0)
+                    vector.set(code);
+            return vector;
+        });
+    }
+}
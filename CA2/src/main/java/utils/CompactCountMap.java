@@ -0,0 +1,208 @@
+package utils;
+
+import java.util.*;
+
+// Map over an IntIntMap with keys stored as ints through a KeyCodec; keys the codec will not encode go to a plain map.
+public class CompactCountMap<K> extends AbstractMap<K, Integer> {
+    public static final long NO_CODE = Long.MIN_VALUE;
+
+    public interface KeyCodec<K> {
+        // Returns NO_CODE when the codec does not encode the key.
+        long encode(K key);
+
+        // Like encode, but never assigns a new code.
+        long lookup(Object key);
+
+        K decode(int code);
+    }
+
+    public static final KeyCodec<Integer> INT_KEYS = new KeyCodec<>() {
+        @Override
+        public long encode(Integer key) {
+            return key;
+        }
+
+        @Override
+        public long lookup(Object key) {
+            return key instanceof Integer value ? value : NO_CODE;
+        }
+
+        @Override
+        public Integer decode(int code) {
+            return code;
+        }
+    };
+
+    public static final KeyCodec<String> COMMODITY_ID_KEYS = ordinalKeys(Ordinals.COMMODITY_IDS, true);
+    // Only registered usernames are interned, so names sent by anyone else cannot grow the shared dictionary.
+    public static final KeyCodec<String> USERNAME_KEYS = ordinalKeys(Ordinals.USERNAMES, false);
+
+    public static KeyCodec<String> ordinalKeys(Ordinals ordinals, boolean intern) {
+        return new KeyCodec<>() {
+            @Override
+            public long encode(String key) {
+                return intern ? ordinals.intern(key) : lookup(key);
+            }
+
+            @Override
+            public long lookup(Object key) {
+                int ordinal = key instanceof String value ? ordinals.find(value) : 0;
+                return ordinal == 0 ? NO_CODE : ordinal;
+            }
+
+            @Override
+            public String decode(int code) {
+                return ordinals.valueOf(code);
+            }
+        };
+    }
+
+    private final KeyCodec<K> codec;
+    private final IntIntMap entries;
+    private Map<K, Integer> overflow;
+
+    public CompactCountMap(KeyCodec<K> codec) {
+        this.codec = codec;
+        this.entries = new IntIntMap();
+    }
+
+    public CompactCountMap(KeyCodec<K> codec, Map<? extends K, Integer> source) {
+        this.codec = codec;
+        if (source instanceof CompactCountMap<?> compact && compact.codec == codec) {
+            synchronized (compact) {
+                this.entries = compact.entries.copy();
+                @SuppressWarnings("unchecked")
+                Map<K, Integer> sourceOverflow = (Map<K, Integer>) compact.overflow;
+                if (sourceOverflow != null)
+                    this.overflow = new HashMap<>(sourceOverflow);
+            }
+        } else {
+            this.entries = new IntIntMap(source.size());
+            source.forEach(this::put);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size() + (overflow == null ? 0 : overflow.size());
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        long code = codec.lookup(key);
+        return code != NO_CODE && entries.containsKey((int) code) || overflow != null && overflow.containsKey(key);
+    }
+
+    @Override
+    public synchronized Integer get(Object key) {
+        long code = codec.lookup(key);
+        if (code != NO_CODE && entries.containsKey((int) code))
+            return entries.get((int) code, 0);
+        return overflow == null ? null : overflow.get(key);
+    }
+
+    @Override
+    public synchronized Integer put(K key, Integer value) {
+        long code = codec.encode(key);
+        if (code == NO_CODE) {
+            if (overflow == null)
+                overflow = new HashMap<>();
+            return overflow.put(key, value);
+        }
+
+        // A key can gain a code after it was put, e.g. a user registering after rating.
+        Integer previous = overflow == null ? null : overflow.remove(key);
+        if (entries.containsKey((int) code))
+            previous = entries.get((int) code, 0);
+        entries.put((int) code, value);
+        return previous;
+    }
+
+    @Override
+    public synchronized Integer remove(Object key) {
+        Integer removed = overflow == null ? null : overflow.remove(key);
+        long code = codec.lookup(key);
+        if (code != NO_CODE && entries.containsKey((int) code)) {
+            removed = entries.get((int) code, 0);
+            entries.remove((int) code);
+        }
+        return removed;
+    }
+
+    // Adds delta to the key's count, treating an absent key as 0, and returns the new count.
+    public synchronized int addTo(K key, int delta) {
+        Integer previous = get(key);
+        int updated = (previous == null ? 0 : previous) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        overflow = null;
+    }
+
+    // Iteration walks a copy taken under the lock, so it never sees a table in the middle of a resize; removing
+    // through the iterator and setting an entry's value write through to the map.
+    @Override
+    public Set<Entry<K, Integer>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, Integer>> iterator() {
+                List<Entry<K, Integer>> copy;
+                synchronized (CompactCountMap.this) {
+                    copy = new ArrayList<>(CompactCountMap.this.size());
+                    entries.forEach((code, value) -> copy.add(new LiveEntry(codec.decode(code), value)));
+                    if (overflow != null)
+                        overflow.forEach((key, value) -> copy.add(new LiveEntry(key, value)));
+                }
+                Iterator<Entry<K, Integer>> iterator = copy.iterator();
+                return new Iterator<>() {
+                    private Entry<K, Integer> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, Integer> next() {
+                        last = iterator.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null)
+                            throw new IllegalStateException();
+                        CompactCountMap.this.remove(last.getKey());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactCountMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                CompactCountMap.this.clear();
+            }
+        };
+    }
+
+    private class LiveEntry extends SimpleEntry<K, Integer> {
+        LiveEntry(K key, Integer value) {
+            super(key, value);
+        }
+
+        @Override
+        public Integer setValue(Integer value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package utils;
+
+import java.util.Arrays;
+
+// Open-addressing hash map from int keys to int values. Not thread-safe.
+public class IntIntMap {
+    private static final int MINIMUM_CAPACITY = 4;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    public IntIntMap() {
+        this(MINIMUM_CAPACITY);
+    }
+
+    public IntIntMap(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0)
+            return hasZeroKey;
+        return keys[slotOf(key)] == key;
+    }
+
+    // Every int is a valid value, so absence is told by containsKey rather than by a reserved value.
+    public int get(int key, int absentValue) {
+        if (key == 0)
+            return hasZeroKey ? zeroValue : absentValue;
+
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : absentValue;
+    }
+
+    public void put(int key, int value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR)
+            resize(keys.length * 2);
+    }
+
+    // Adds delta to the key's value, treating an absent key as 0, and returns the new value.
+    public int addTo(int key, int delta) {
+        int updated = get(key, 0) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    // Returns whether the key was present.
+    public boolean remove(int key) {
+        if (key == 0) {
+            boolean present = hasZeroKey;
+            hasZeroKey = false;
+            return present;
+        }
+
+        int slot = slotOf(key);
+        if (keys[slot] != key)
+            return false;
+
+        shiftBack(slot);
+        size -= 1;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey)
+            action.accept(0, zeroValue);
+        for (int slot = 0; slot < keys.length; slot++)
+            if (keys[slot] != 0)
+                action.accept(keys[slot], values[slot]);
+    }
+
+    public IntIntMap copy() {
+        IntIntMap copy = new IntIntMap(MINIMUM_CAPACITY);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        copy.hasZeroKey = hasZeroKey;
+        copy.zeroValue = zeroValue;
+        return copy;
+    }
+
+    // Slot holding the key, or the empty slot where it would go.
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    // Closes the gap left at slot by moving back later entries of the probe run that would otherwise become
+    // unreachable.
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        for (int slot = 0; slot < oldKeys.length; slot++)
+            if (oldKeys[slot] != 0) {
+                int target = slotOf(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize + 1)
+            capacity <<= 1;
+        return capacity;
+    }
+}
@@ -0,0 +1,47 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Append-only dictionary giving each distinct string an int starting at 1.
+public class Ordinals {
+    public static final Ordinals COMMODITY_IDS = new Ordinals();
+    public static final Ordinals USERNAMES = new Ordinals();
+    public static final Ordinals CATEGORIES = new Ordinals();
+    public static final Ordinals PROVIDER_IDS = new Ordinals();
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+
+    // Returns the value's ordinal, assigning the next one when it has none yet.
+    public int intern(String value) {
+        Integer ordinal = ordinals.get(value);
+        return ordinal != null ? ordinal : assign(value);
+    }
+
+    // Returns the value's ordinal, or 0 when it has none, without assigning one.
+    public int find(String value) {
+        Integer ordinal = ordinals.get(value);
+        return ordinal != null ? ordinal : 0;
+    }
+
+    public String valueOf(int ordinal) {
+        return values[ordinal];
+    }
+
+    private synchronized int assign(String value) {
+        Integer existing = ordinals.get(value);
+        if (existing != null)
+            return existing;
+
+        int ordinal = ordinals.size() + 1;
+        String[] current = values;
+        if (ordinal >= current.length)
+            current = Arrays.copyOf(current, current.length * 2);
+        current[ordinal] = value;
+        values = current;
+        ordinals.put(value, ordinal);
+        return ordinal;
+    }
+}
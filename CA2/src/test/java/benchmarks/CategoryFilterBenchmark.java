@@ -0,0 +1,132 @@
+package benchmarks;
+
+import database.CommodityRepository;
+import database.InMemoryStorage;
+import model.Commodity;
+import org.openjdk.jmh.annotations.*;
+import search.CommodityFacetIndex;
+import search.CommodityFilter;
+import utils.Ordinals;
+import utils.RoaringBitmap;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Category and provider filters through per-category lists ("list") or facet bitmaps ("bitmap").
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx6g"})
+public class CategoryFilterBenchmark {
+    private static final int PROVIDERS = 50;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"500"})
+    public int categories;
+
+    // Popularity rank of the filtered category: 0 is the most common one.
+    @Param({"0", "400"})
+    public int categoryRank;
+
+    private CommodityRepository repository;
+    private CommodityFacetIndex facetIndex;
+    private String category;
+    private List<String> unionCategories;
+    private String providerId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        ArrayList<Commodity> commodities = new ArrayList<>(size);
+        facetIndex = new CommodityFacetIndex();
+        for (int i = 0; i < size; i++) {
+            Commodity commodity = new Commodity();
+            commodity.setId("bench-" + i);
+            commodity.setName("Model " + i);
+            commodity.setPrice(random.nextInt(10_000));
+            commodity.setProviderId("provider-" + random.nextInt(PROVIDERS));
+            commodity.setCategories(new ArrayList<>(List.of(categoryName(skewedRank(random)),
+                    categoryName(random.nextInt(categories)))));
+            commodities.add(commodity);
+            facetIndex.add(commodity);
+        }
+        repository = new InMemoryStorage().commodities();
+        repository.replaceAll(commodities);
+
+        category = categoryName(categoryRank);
+        unionCategories = List.of(category, categoryName(categoryRank + 1), categoryName(categoryRank + 2));
+        providerId = "provider-7";
+        System.out.printf("%nbitmap indexes: %d bytes%n", bitmapBytes());
+    }
+
+    private String categoryName(int rank) {
+        return "category-" + rank;
+    }
+
+    // Roughly Zipf-distributed: rank r is drawn with probability proportional to 1 / (r + 1).
+    private int skewedRank(Random random) {
+        return (int) Math.min(categories - 1, Math.floor(Math.pow(categories + 1, random.nextDouble())) - 1);
+    }
+
+    private long bitmapBytes() {
+        long bytes = 0;
+        for (int rank = 0; rank < categories; rank++) {
+            RoaringBitmap bitmap = facetIndex.match(CommodityFilter.byCategory(categoryName(rank)));
+            bytes += bitmap.sizeInBytes();
+        }
+        for (int provider = 0; provider < PROVIDERS; provider++)
+            bytes += facetIndex.match(CommodityFilter.byProvider("provider-" + provider)).sizeInBytes();
+        return bytes;
+    }
+
+    private List<Commodity> resolve(RoaringBitmap ordinals) {
+        List<Commodity> result = new ArrayList<>(ordinals.cardinality());
+        ordinals.forEach(ordinal -> result.add(repository.findById(Ordinals.COMMODITY_IDS.valueOf(ordinal))));
+        return result;
+    }
+
+    @Benchmark
+    public List<Commodity> listCategory() {
+        return new ArrayList<>(repository.findByCategory(category));
+    }
+
+    @Benchmark
+    public List<Commodity> bitmapCategory() {
+        return resolve(facetIndex.match(CommodityFilter.byCategory(category)));
+    }
+
+    @Benchmark
+    public List<Commodity> listCategoryAndProvider() {
+        List<Commodity> result = new ArrayList<>();
+        for (Commodity commodity : repository.findByCategory(category))
+            if (providerId.equals(commodity.getProviderId()))
+                result.add(commodity);
+        return result;
+    }
+
+    @Benchmark
+    public List<Commodity> bitmapCategoryAndProvider() {
+        return resolve(facetIndex.match(new CommodityFilter(null, null, List.of(category), providerId, null)));
+    }
+
+    @Benchmark
+    public List<Commodity> listCategoryUnionAndProvider() {
+        Set<Commodity> union = new LinkedHashSet<>();
+        for (String unionCategory : unionCategories)
+            union.addAll(repository.findByCategory(unionCategory));
+        List<Commodity> result = new ArrayList<>();
+        for (Commodity commodity : union)
+            if (providerId.equals(commodity.getProviderId()))
+                result.add(commodity);
+        return result;
+    }
+
+    @Benchmark
+    public List<Commodity> bitmapCategoryUnionAndProvider() {
+        return resolve(facetIndex.match(new CommodityFilter(null, null, unionCategories, providerId, null)));
+    }
+}
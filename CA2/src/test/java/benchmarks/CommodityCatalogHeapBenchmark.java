@@ -0,0 +1,122 @@
+package benchmarks;
+
+import database.CommodityRepository;
+import database.Database;
+import database.InMemoryStorage;
+import database.OffHeapCommodityStore;
+import model.Commodity;
+import org.openjdk.jmh.annotations.*;
+import search.CommodityFacetIndex;
+import search.CommodityOrderIndex;
+import service.SuggestionEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Run with "-prof gc" to compare allocation and collection time; retained heap is printed after setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(4)
+public class CommodityCatalogHeapBenchmark {
+    private static final int SUGGESTION_CANDIDATES = 5;
+    private static final String[] CATEGORIES = {"phone", "tech", "audio", "laptop", "tablet", "camera", "watch"};
+
+    @Param({"memory", "offheap"})
+    public String backend;
+
+    @Param({"1000000"})
+    public int size;
+
+    private CommodityRepository commodities;
+    private final CommodityOrderIndex orderIndex = new CommodityOrderIndex();
+    private final CommodityFacetIndex facetIndex = new CommodityFacetIndex();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        long heapBefore = usedHeap();
+        commodities = backend.equals("offheap") ? new OffHeapCommodityStore() : new InMemoryStorage().commodities();
+        commodities.replaceAll(catalog());
+        long storeBytes = usedHeap() - heapBefore;
+        System.out.printf("%n%s catalog of %d commodities retains %d MB of heap%n", backend, size, storeBytes >> 20);
+
+        System.setProperty("baloot.storage", backend);
+        System.setProperty("baloot.state.dir", Files.createTempDirectory("catalog-heap").toString());
+        heapBefore = usedHeap();
+        Database.getInstance().setCommodities(catalog());
+        long databaseBytes = usedHeap() - heapBefore;
+        System.out.printf("%s catalog loaded into Database retains %d MB of heap, %d MB of it in indexes%n", backend,
+                databaseBytes >> 20, (databaseBytes - storeBytes) >> 20);
+
+        commodities.forEach(commodity -> {
+            orderIndex.add(commodity);
+            facetIndex.add(commodity);
+        });
+    }
+
+    @Benchmark
+    public Commodity findById() {
+        return commodities.findById(String.valueOf(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    @Benchmark
+    public Commodity rateAndUpdate() {
+        Commodity commodity = commodities.findById(String.valueOf(ThreadLocalRandom.current().nextInt(size)));
+        synchronized (commodity) {
+            commodity.addRate("bench", ThreadLocalRandom.current().nextInt(1, 11));
+            commodities.update(commodity);
+        }
+        return commodity;
+    }
+
+    @Benchmark
+    public List<Commodity> suggestScanningCatalog() {
+        return new SuggestionEngine().suggest(randomCommodity(), commodities::findAll);
+    }
+
+    @Benchmark
+    public List<Commodity> suggestFromIndexes() {
+        Commodity commodity = randomCommodity();
+        return new SuggestionEngine().suggest(commodity, () -> {
+            List<Commodity> candidates = new ArrayList<>();
+            for (String commodityId : orderIndex.highestRated(SUGGESTION_CANDIDATES,
+                    ordinal -> facetIndex.inAnyCategory(ordinal, commodity.categoryCodes())))
+                candidates.add(commodities.findById(commodityId));
+            return candidates;
+        });
+    }
+
+    private ArrayList<Commodity> catalog() {
+        ArrayList<Commodity> catalog = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Commodity commodity = new Commodity();
+            commodity.setId(String.valueOf(i));
+            commodity.setName("Commodity " + i);
+            commodity.setProviderId(String.valueOf(i % 100));
+            commodity.setPrice(1 + i % 1000);
+            commodity.setCategories(new ArrayList<>(List.of(CATEGORIES[i % CATEGORIES.length])));
+            commodity.setInStock(100);
+            commodity.addRate("user" + i % 1000, i % 10);
+            catalog.add(commodity);
+        }
+        return catalog;
+    }
+
+    private Commodity randomCommodity() {
+        return commodities.findById(String.valueOf(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import model.Commodity;
+import org.openjdk.jmh.annotations.*;
+import search.CommoditySearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CommoditySearchBenchmark {
+    private static final String[] BRANDS = {"apple", "samsung", "xiaomi", "sony", "lenovo", "asus", "nokia", "huawei"};
+    private static final String[] CATEGORIES = {"phone", "tech", "audio", "laptop", "tablet", "camera", "watch"};
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final Random random = new Random(42);
+    private CommoditySearchIndex searchIndex;
+    private List<Commodity> commodities;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        searchIndex = new CommoditySearchIndex();
+        commodities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Commodity commodity = new Commodity();
+            commodity.setId(String.valueOf(i));
+            commodity.setName(BRANDS[i % BRANDS.length] + " Model" + i);
+            commodity.setCategories(new ArrayList<>(List.of(CATEGORIES[i % CATEGORIES.length])));
+            commodities.add(commodity);
+            searchIndex.add(commodity);
+        }
+    }
+
+    // Ids with the full digit count are not a prefix of any other id, so every query matches exactly one
+    // commodity and the measured latency is independent of the result size.
+    private int nextFullLengthId() {
+        return size / 10 + random.nextInt(size - size / 10);
+    }
+
+    @Benchmark
+    public List<Commodity> indexedExactTerm() {
+        return searchIndex.search("MODEL" + nextFullLengthId());
+    }
+
+    @Benchmark
+    public List<Commodity> linearContainsScan() {
+        String name = "Model" + nextFullLengthId();
+        List<Commodity> result = new ArrayList<>();
+        for (Commodity commodity : commodities)
+            if (commodity.getName().contains(name))
+                result.add(commodity);
+
+        return result;
+    }
+}
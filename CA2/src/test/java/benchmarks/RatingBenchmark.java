@@ -0,0 +1,56 @@
+package benchmarks;
+
+import model.Commodity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class RatingBenchmark {
+    private static final int NUMBER_OF_RATERS = 1_000_000;
+
+    private final Random random = new Random(42);
+    private Commodity commodity;
+    private Map<String, Integer> recountedRates;
+    private float recountedRating;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        commodity = new Commodity();
+        recountedRates = new HashMap<>();
+        for (int i = 0; i < NUMBER_OF_RATERS; i++) {
+            commodity.addRate("user" + i, 1 + i % 10);
+            recountedRates.put("user" + i, 1 + i % 10);
+        }
+    }
+
+    // The aggregation Commodity.addRate used before ratings were kept as a running sum and count.
+    private void recountingAddRate(String username, int score) {
+        recountedRates.put(username, score);
+        float sum = 0;
+        for (Map.Entry<String, Integer> entry : recountedRates.entrySet())
+            sum += entry.getValue();
+
+        recountedRating = sum / (recountedRates.size() + 1);
+    }
+
+    @Benchmark
+    public float incrementalAddRate() {
+        commodity.addRate("user" + random.nextInt(NUMBER_OF_RATERS), 1 + random.nextInt(10));
+        return commodity.getRating();
+    }
+
+    @Benchmark
+    public float recountingAddRate() {
+        recountingAddRate("user" + random.nextInt(NUMBER_OF_RATERS), 1 + random.nextInt(10));
+        return recountedRating;
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import database.DataParser;
+import database.DataSet;
+import database.SnapshotCodec;
+import model.Commodity;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx6g"})
+public class SnapshotLoadBenchmark {
+    private static final String[] CATEGORIES = {"phone", "tech", "audio", "laptop", "tablet", "camera", "watch"};
+
+    @Param({"1000000"})
+    public int size;
+
+    private Path dataDirectory;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dataDirectory = Files.createTempDirectory("baloot-bench");
+        snapshotFile = dataDirectory.resolve("snapshot.bin");
+
+        ArrayList<Commodity> commodities = new ArrayList<>(size);
+        ObjectMapper objectMapper = new ObjectMapper();
+        File jsonFile = dataDirectory.resolve("commodities.json").toFile();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(jsonFile, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (int i = 0; i < size; i++) {
+                Commodity commodity = new Commodity();
+                commodity.setId(String.valueOf(i));
+                commodity.setName("Commodity " + i);
+                commodity.setProviderId(String.valueOf(i % 100));
+                commodity.setPrice(1 + i % 1000);
+                commodity.setCategories(new ArrayList<>(List.of(CATEGORIES[i % CATEGORIES.length])));
+                commodity.setRating(i % 10);
+                commodity.setInStock(100);
+                commodity.setImage("");
+                objectMapper.writeValue(generator, commodity);
+                commodities.add(commodity);
+            }
+            generator.writeEndArray();
+        }
+
+        SnapshotCodec.write(snapshotFile,
+                new DataSet(new ArrayList<>(), new ArrayList<>(), commodities, new ArrayList<>()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(dataDirectory)) {
+            for (Path file : files.toList())
+                Files.delete(file);
+        }
+        Files.delete(dataDirectory);
+    }
+
+    @Benchmark
+    public List<Commodity> loadJson() throws IOException {
+        List<Commodity> commodities = new ArrayList<>();
+        new DataParser(dataDirectory + "/").streamCommodities(commodities::add);
+        return commodities;
+    }
+
+    @Benchmark
+    public List<Commodity> loadSnapshot() throws IOException {
+        return SnapshotCodec.read(snapshotFile).commodities();
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import model.Commodity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockCounterBenchmark {
+    @Param({"lockFree", "synchronized"})
+    public String counter;
+
+    private Commodity commodity;
+    private int lockedStock;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        commodity = new Commodity();
+        commodity.setInStock(Integer.MAX_VALUE);
+        lockedStock = Integer.MAX_VALUE;
+    }
+
+    private synchronized boolean lockedReserve() {
+        if (lockedStock < 1)
+            return false;
+        lockedStock -= 1;
+        return true;
+    }
+
+    private boolean decrement() {
+        return counter.equals("lockFree") ? commodity.tryReserve(1) : lockedReserve();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean decrement_1thread() {
+        return decrement();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean decrement_4threads() {
+        return decrement();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean decrement_16threads() {
+        return decrement();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean decrement_64threads() {
+        return decrement();
+    }
+}
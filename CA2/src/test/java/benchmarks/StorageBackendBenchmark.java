@@ -0,0 +1,99 @@
+package benchmarks;
+
+import database.DiskStorage;
+import database.InMemoryStorage;
+import database.StorageBackend;
+import model.Commodity;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Threads(4)
+public class StorageBackendBenchmark {
+    private static final String[] CATEGORIES = {"phone", "tech", "audio", "laptop", "tablet", "camera", "watch"};
+
+    @Param({"memory", "disk"})
+    public String backend;
+
+    @Param({"100000"})
+    public int size;
+
+    private Path directory;
+    private StorageBackend storage;
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("baloot-storage-bench");
+        storage = backend.equals("disk") ? new DiskStorage(directory) : new InMemoryStorage();
+
+        ArrayList<User> users = new ArrayList<>(size);
+        ArrayList<Commodity> commodities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(new User("user" + i, "secret", "user" + i + "@gmail.com", "2000-01-01", "Tehran"));
+
+            Commodity commodity = new Commodity();
+            commodity.setId(String.valueOf(i));
+            commodity.setName("Commodity " + i);
+            commodity.setProviderId(String.valueOf(i % 100));
+            commodity.setPrice(1 + i % 1000);
+            commodity.setCategories(new ArrayList<>(List.of(CATEGORIES[i % CATEGORIES.length])));
+            commodity.setInStock(100);
+            commodities.add(commodity);
+        }
+        storage.users().replaceAll(users);
+        storage.commodities().replaceAll(commodities);
+        nextUser.set(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList())
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Commodity findCommodityById() {
+        return storage.commodities().findById(String.valueOf(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    @Benchmark
+    public User updateUserCredit() {
+        User user = storage.users().findByUsername("user" + ThreadLocalRandom.current().nextInt(size));
+        synchronized (user) {
+            user.setCredit(user.getCredit() + 1);
+            storage.users().update(user);
+        }
+        return user;
+    }
+
+    @Benchmark
+    public boolean insertUser() {
+        int id = nextUser.getAndIncrement();
+        return storage.users().insert(new User("user" + id, "secret", "", "2000-01-01", ""));
+    }
+
+    @Benchmark
+    public int findCommoditiesByCategory() {
+        return storage.commodities().findByCategory(CATEGORIES[ThreadLocalRandom.current().nextInt(CATEGORIES.length)])
+                .size();
+    }
+}
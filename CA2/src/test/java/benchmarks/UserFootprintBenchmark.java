@@ -0,0 +1,83 @@
+package benchmarks;
+
+import model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Retained heap per user for the previous boxed maps ("boxed") and User as it is now ("compact").
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx6g"})
+public class UserFootprintBenchmark {
+    @Param({"boxed", "compact"})
+    public String representation;
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"1000"})
+    public int entriesPerUser;
+
+    private List<Object> retained;
+    private long heapBefore;
+
+    private record BoxedUser(User user, Map<Integer, Integer> commoditiesRates, Map<String, Integer> buyList,
+                             Map<String, Integer> purchasedList) {
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        retained = null;
+        heapBefore = usedHeap();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long bytes = usedHeap() - heapBefore;
+        System.out.printf("%n%s: %d bytes per user with %d entries per map%n", representation,
+                bytes / users, entriesPerUser);
+        retained = null;
+    }
+
+    @Benchmark
+    public List<Object> buildUsers() {
+        retained = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            User user = new User("user" + u, "secret", "user" + u + "@gmail.com", "2000-01-01", "Tehran");
+            if (representation.equals("compact")) {
+                for (int i = 0; i < entriesPerUser; i++) {
+                    user.getCommoditiesRates().put(i, i % 10);
+                    user.getBuyList().put(String.valueOf(i), 1 + i % 3);
+                    user.getPurchasedList().put(String.valueOf(i), 1 + i % 5);
+                }
+                retained.add(user);
+            } else {
+                Map<Integer, Integer> rates = new HashMap<>();
+                Map<String, Integer> buyList = new HashMap<>();
+                Map<String, Integer> purchasedList = new HashMap<>();
+                for (int i = 0; i < entriesPerUser; i++) {
+                    rates.put(i, i % 10);
+                    buyList.put(String.valueOf(i), 1 + i % 3);
+                    purchasedList.put(String.valueOf(i), 1 + i % 5);
+                }
+                retained.add(new BoxedUser(user, rates, buyList, purchasedList));
+            }
+        }
+        return retained;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
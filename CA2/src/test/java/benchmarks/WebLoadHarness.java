@@ -0,0 +1,138 @@
+package benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop HTTP load, e.g. path=purchase concurrency=400 duration=30 label=virtual.
+public class WebLoadHarness {
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String url;
+    private final String path;
+    private final int concurrency;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final AtomicLong errors = new AtomicLong();
+
+    WebLoadHarness(Map<String, String> options) {
+        url = options.getOrDefault("url", "http://localhost:8080");
+        path = options.getOrDefault("path", "commodities");
+        concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        warmupNanos = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5"))).toNanos();
+        durationNanos = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))).toNanos();
+        if (!path.equals("commodities") && !path.equals("purchase"))
+            throw new IllegalArgumentException("path should be commodities or purchase");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            options.put(parts[0], parts.length == 2 ? parts[1] : "");
+        }
+        WebLoadHarness harness = new WebLoadHarness(options);
+        harness.report(options.getOrDefault("label", "run"), harness.run());
+    }
+
+    private HttpRequest request(int client, String runId) {
+        if (path.equals("commodities"))
+            return HttpRequest.newBuilder(URI.create(url + "/commodities")).GET().build();
+        return post("/buy-list/purchase", "{\"username\": \"" + username(client, runId) + "\"}");
+    }
+
+    private HttpRequest post(String endpoint, String body) {
+        return HttpRequest.newBuilder(URI.create(url + endpoint))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String username(int client, String runId) {
+        return "load-" + runId + "-" + client;
+    }
+
+    private void signUp(String runId) throws Exception {
+        for (int i = 0; i < concurrency; i++) {
+            String username = username(i, runId);
+            client.send(post("/signup", "{\"username\": \"" + username + "\", \"password\": \"load\", " +
+                    "\"email\": \"" + username + "@load.test\", \"birthDate\": \"2000-01-01\", " +
+                    "\"address\": \"Tehran\"}"), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    // Returns the latencies, in nanoseconds, of the requests answered after the warmup.
+    long[] run() throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        if (path.equals("purchase"))
+            signUp(runId);
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = request(i, runId);
+            Thread thread = new Thread(() -> latencies.add(drive(request, measureFrom, end)));
+            thread.start();
+            clients.add(thread);
+        }
+        for (Thread thread : clients)
+            thread.join();
+
+        int count = 0;
+        for (long[] clientLatencies : latencies)
+            count += clientLatencies.length;
+        long[] all = new long[count];
+        int offset = 0;
+        for (long[] clientLatencies : latencies) {
+            System.arraycopy(clientLatencies, 0, all, offset, clientLatencies.length);
+            offset += clientLatencies.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private long[] drive(HttpRequest request, long measureFrom, long end) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (true) {
+            long sent = System.nanoTime();
+            if (sent >= end)
+                break;
+            boolean failed;
+            try {
+                failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200;
+            } catch (Exception e) {
+                failed = true;
+            }
+            if (sent < measureFrom)
+                continue;
+            if (failed)
+                errors.incrementAndGet();
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = System.nanoTime() - sent;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private void report(String label, long[] latencies) {
+        double seconds = durationNanos / 1e9;
+        System.out.printf("%s %s: concurrency=%d requests=%d errors=%d throughput=%.0f/s p50=%.2fms " +
+                        "p99=%.2fms max=%.2fms%n", label, path, concurrency, latencies.length, errors.get(),
+                latencies.length / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0)
+            return Double.NaN;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
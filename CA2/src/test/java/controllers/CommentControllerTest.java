@@ -23,8 +23,7 @@ public class CommentControllerTest {
     @BeforeEach
     public void initialize() {
         baloot = mock(Baloot.class);
-        commentController = new CommentController();
-        commentController.setBaloot(baloot);
+        commentController = new CommentController(baloot);
     }
 
     public Map<String,String> createCommentInput() {
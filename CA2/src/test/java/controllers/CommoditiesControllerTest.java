@@ -1,5 +1,7 @@
 package controllers;
 
+import exceptions.MissingFilter;
+import exceptions.MissingStartOrEndPrice;
 import exceptions.NotExistentCommodity;
 import exceptions.NotExistentUser;
 import model.Comment;
@@ -8,15 +10,28 @@ import model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
+import search.CommodityFilter;
+import search.CommodityOrderIndex;
+import search.Page;
+import search.SortKey;
 import service.Baloot;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class CommoditiesControllerTest {
@@ -28,8 +43,7 @@ public class CommoditiesControllerTest {
     @BeforeEach
     public void init() {
         baloot = mock(Baloot.class);
-        commoditiesController = new CommoditiesController();
-        commoditiesController.setBaloot(baloot);
+        commoditiesController = new CommoditiesController(baloot, new ObjectMapper());
     }
 
     public Map<String,String> createRateCommodityInput(String rate) {
@@ -57,7 +71,7 @@ public class CommoditiesControllerTest {
     public void getCommodities_success() {
         when(baloot.getCommodities()).thenReturn(createCommoditiesList());
 
-        var res = commoditiesController.getCommodities();
+        var res = commoditiesController.getCommodities(null);
         assertEquals(HttpStatus.OK, res.getStatusCode());
         assertEquals(3, res.getBody().size());
     }
@@ -65,17 +79,104 @@ public class CommoditiesControllerTest {
     @Test
     public void getCommodity_notFound() throws NotExistentCommodity {
         when(baloot.getCommodityById(anyString())).thenThrow(NotExistentCommodity.class);
-        var statusCode = commoditiesController.getCommodity("1").getStatusCode();
+        var statusCode = commoditiesController.getCommodity("1", null).getStatusCode();
         assertEquals(HttpStatus.NOT_FOUND, statusCode);
     }
 
     @Test
     public void getCommodity_success() throws NotExistentCommodity {
         when(baloot.getCommodityById("1")).thenReturn(new Commodity());
-        var statusCode = commoditiesController.getCommodity("1").getStatusCode();
+        var statusCode = commoditiesController.getCommodity("1", null).getStatusCode();
         assertEquals(HttpStatus.OK, statusCode);
     }
 
+    @Test
+    public void getCommodity_sendsEtag() throws NotExistentCommodity {
+        when(baloot.getCommodityEtag("1")).thenReturn("\"a-2\"");
+        when(baloot.getCommodityById("1")).thenReturn(new Commodity());
+        var res = commoditiesController.getCommodity("1", "\"a-1\"");
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals("\"a-2\"", res.getHeaders().getETag());
+    }
+
+    @Test
+    public void getCommodity_notModified() throws NotExistentCommodity {
+        when(baloot.getCommodityEtag("1")).thenReturn("\"a-2\"");
+        var res = commoditiesController.getCommodity("1", "\"a-1\", W/\"a-2\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, res.getStatusCode());
+        assertNull(res.getBody());
+        verify(baloot, never()).getCommodityById(anyString());
+    }
+
+    @Test
+    public void getCommodities_notModified() {
+        when(baloot.getCommoditiesEtag()).thenReturn("\"a-7\"");
+        var res = commoditiesController.getCommodities("\"a-7\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, res.getStatusCode());
+        verify(baloot, never()).getCommodities();
+    }
+
+    @Test
+    public void getCommoditiesPage_streamsItemsAndCursor() throws IOException {
+        Commodity commodity = new Commodity();
+        commodity.setId("2");
+        commodity.setPrice(100);
+        when(baloot.getCommoditiesPage(CommodityOrderIndex.Sort.PRICE, true, null, 1))
+                .thenReturn(new Page<>(List.of(commodity), CommodityOrderIndex.Sort.PRICE.keyOf(commodity)));
+
+        var res = commoditiesController.getCommoditiesPage("price", "desc", null, "1", null);
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        res.getBody().writeTo(out);
+        JsonNode body = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals("2", body.get("items").get(0).get("id").asText());
+        assertEquals("2", SortKey.decode(body.get("nextCursor").asText(), "PRICE").id());
+    }
+
+    @Test
+    public void getCommoditiesPage_badRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                commoditiesController.getCommoditiesPage("color", null, null, "10", null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                commoditiesController.getCommoditiesPage(null, null, null, "0", null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                commoditiesController.getCommoditiesPage(null, null, "bogus", "10", null).getStatusCode());
+    }
+
+    @Test
+    public void filterCommodities_success() throws Exception {
+        when(baloot.filterCommodities(new CommodityFilter(10, 20, List.of("phone", "tv"), null, 4f)))
+                .thenReturn(createCommoditiesList());
+        var res = commoditiesController.filterCommodities("10", "20", "phone,tv", null, "4");
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals(3, res.getBody().size());
+    }
+
+    @Test
+    public void filterCommodities_invalidPrice() throws Exception {
+        when(baloot.filterCommodities(new CommodityFilter(10, null, null, null, null)))
+                .thenThrow(new MissingStartOrEndPrice());
+        var res = commoditiesController.filterCommodities("10", null, null, null, null);
+        assertEquals(HttpStatus.BAD_REQUEST, res.getStatusCode());
+        assertTrue(res.getBody().isEmpty());
+
+        res = commoditiesController.filterCommodities("ten", "20", null, null, null);
+        assertEquals(HttpStatus.BAD_REQUEST, res.getStatusCode());
+        assertTrue(res.getBody().isEmpty());
+
+        res = commoditiesController.filterCommodities(null, null, null, null, "four");
+        assertEquals(HttpStatus.BAD_REQUEST, res.getStatusCode());
+    }
+
+    @Test
+    public void filterCommodities_noFacet() throws Exception {
+        when(baloot.filterCommodities(new CommodityFilter(null, null, null, null, null)))
+                .thenThrow(new MissingFilter());
+        var res = commoditiesController.filterCommodities(null, null, null, null, null);
+        assertEquals(HttpStatus.BAD_REQUEST, res.getStatusCode());
+        assertTrue(res.getBody().isEmpty());
+    }
+
     @Test
     public void rateCommodity_notFound() throws NotExistentCommodity {
         var rateInput = createRateCommodityInput("2");
@@ -137,7 +238,7 @@ public class CommoditiesControllerTest {
             }
         });
 
-        var res = commoditiesController.getCommodityComment("1");
+        var res = commoditiesController.getCommodityComment("1", null);
         assertEquals(HttpStatus.OK, res.getStatusCode());
         assertEquals(3, res.getBody().size());
     }
@@ -181,6 +282,19 @@ public class CommoditiesControllerTest {
         assertEquals(3, res.getBody().size());
     }
 
+    @Test
+    public void searchCommodities_byText_success() {
+        var searchInput = Map.of(
+                "searchOption", "text",
+                "searchValue", "value"
+        );
+        when(baloot.searchCommoditiesByText(anyString())).thenReturn(createCommoditiesList());
+
+        var res = commoditiesController.searchCommodities(searchInput);
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals(3, res.getBody().size());
+    }
+
     @Test
     public void getSuggestedCommodities_notFound() throws NotExistentCommodity {
         when(baloot.getCommodityById(anyString())).thenThrow(NotExistentCommodity.class);
@@ -0,0 +1,157 @@
+package controllers;
+
+import exceptions.NotExistentCommodity;
+import exceptions.NotExistentProvider;
+import model.Comment;
+import model.Commodity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.scheduler.Schedulers;
+import search.CommodityOrderIndex;
+import search.Page;
+import search.SortKey;
+import service.Baloot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReactiveCatalogHandlerTest {
+    Baloot baloot;
+    WebTestClient client;
+
+    @BeforeEach
+    public void init() {
+        baloot = mock(Baloot.class);
+        ReactiveCatalogHandler handler = new ReactiveCatalogHandler(baloot, Schedulers.immediate());
+        client = WebTestClient.bindToRouterFunction(handler.routes()).build();
+    }
+
+    private Commodity commodity(String id) {
+        Commodity commodity = new Commodity();
+        commodity.setId(id);
+        commodity.setName("Commodity " + id);
+        commodity.setProviderId("1");
+        commodity.setCategories(new ArrayList<>(List.of("Phone")));
+        return commodity;
+    }
+
+    private void catalog(Commodity... commodities) {
+        when(baloot.getCommoditiesPage(eq(CommodityOrderIndex.Sort.ID), eq(false), isNull(), anyInt()))
+                .thenReturn(new Page<>(List.of(commodities), null));
+    }
+
+    @Test
+    public void getCommodities_streamsJsonArrayWithEtag() {
+        when(baloot.getCommoditiesEtag()).thenReturn("\"a-1\"");
+        catalog(commodity("1"), commodity("2"));
+
+        client.get().uri("/commodities").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"a-1\"")
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBodyList(Commodity.class).hasSize(2);
+    }
+
+    @Test
+    public void getCommodities_streamsOneElementPerLineForNdjson() {
+        when(baloot.getCommoditiesEtag()).thenReturn("\"a-1\"");
+        catalog(commodity("1"), commodity("2"));
+
+        String body = client.get().uri("/commodities").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals(2, body.lines().count());
+    }
+
+    @Test
+    public void getCommodities_notModifiedSkipsListing() {
+        when(baloot.getCommoditiesEtag()).thenReturn("\"a-1\"");
+
+        client.get().uri("/commodities").header(HttpHeaders.IF_NONE_MATCH, "W/\"a-1\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"a-1\"");
+        verify(baloot, never()).getCommoditiesPage(any(), anyBoolean(), any(), anyInt());
+    }
+
+    @Test
+    public void getCommodities_readsPagesFromCursor() {
+        SortKey afterFirst = CommodityOrderIndex.Sort.ID.keyOf(commodity("1"));
+        when(baloot.getCommoditiesEtag()).thenReturn("\"a-1\"");
+        when(baloot.getCommoditiesPage(eq(CommodityOrderIndex.Sort.ID), eq(false), isNull(), anyInt()))
+                .thenReturn(new Page<>(List.of(commodity("1")), afterFirst));
+        when(baloot.getCommoditiesPage(eq(CommodityOrderIndex.Sort.ID), eq(false), eq(afterFirst), anyInt()))
+                .thenReturn(new Page<>(List.of(commodity("2")), null));
+
+        client.get().uri("/commodities").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].id").isEqualTo("1").jsonPath("$[1].id").isEqualTo("2");
+        verify(baloot, never()).getCommodities();
+    }
+
+    @Test
+    public void getCommodity_success() throws NotExistentCommodity {
+        when(baloot.getCommodityEtag("1")).thenReturn("\"a-3\"");
+        when(baloot.getCommodityById("1")).thenReturn(commodity("1"));
+
+        client.get().uri("/commodities/1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"a-3\"")
+                .expectBody().jsonPath("$.name").isEqualTo("Commodity 1");
+    }
+
+    @Test
+    public void getCommodity_notFound() throws NotExistentCommodity {
+        when(baloot.getCommodityById("7")).thenThrow(new NotExistentCommodity());
+
+        client.get().uri("/commodities/7").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void getCommodityComment_success() {
+        when(baloot.getCommentsEtag(1)).thenReturn("\"a-2\"");
+        when(baloot.getCommentsPage(eq(1), isNull(), anyInt())).thenReturn(new Page<>(List.of(
+                new Comment(1, "ali@ut.ac.ir", "ali", 1, "good")), null));
+
+        client.get().uri("/commodities/1/comment").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].text").isEqualTo("good");
+    }
+
+    @Test
+    public void getCommodityComment_invalidId() {
+        client.get().uri("/commodities/abc/comment").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void getProvider_notFound() throws NotExistentProvider {
+        when(baloot.getProviderById("9")).thenThrow(new NotExistentProvider());
+
+        client.get().uri("/providers/9").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void getProvidedCommodities_success() {
+        when(baloot.getProviderCommoditiesEtag("1")).thenReturn("\"a-4\"");
+        when(baloot.getProviderCommoditiesPage(eq("1"), eq(CommodityOrderIndex.Sort.ID), eq(false), isNull(), anyInt()))
+                .thenReturn(new Page<>(List.of(commodity("1")), null));
+
+        client.get().uri("/providers/1/commodities").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Commodity.class).hasSize(1);
+    }
+}
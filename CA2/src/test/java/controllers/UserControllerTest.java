@@ -25,8 +25,7 @@ public class UserControllerTest {
     @BeforeEach
     public void initialize() {
         baloot = mock(Baloot.class);
-        userController = new UserController();
-        userController.setBaloot(baloot);
+        userController = new UserController(baloot);
     }
 
     public Map<String,String> createAddCreditInput(String credit) {
@@ -0,0 +1,119 @@
+package database;
+
+import model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactorTest {
+    @TempDir
+    Path stateDirectory;
+
+    private final ArrayList<User> users = new ArrayList<>();
+
+    private DataSet liveData() {
+        return new DataSet(new ArrayList<>(users), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    private WriteAheadLog openLog(long afterSequence, Map<String, User> replayTarget) throws Exception {
+        return WriteAheadLog.open(stateDirectory.resolve("wal"), afterSequence, Duration.ZERO, 256, entry -> {
+            Mutation.Credit credit = (Mutation.Credit) entry.mutation();
+            User user = replayTarget.get(credit.username());
+            user.setCredit(user.getCredit() + credit.amount());
+        });
+    }
+
+    private void deposit(Compactor compactor, WriteAheadLog log, User user) throws Exception {
+        CompletableFuture<Long> durable;
+        synchronized (user) {
+            try (Compactor.Guard guard = compactor.guard()) {
+                guard.preserve(user);
+                user.addCredit(1);
+                durable = log.append(new Mutation.Credit(user.getUsername(), 1));
+            }
+        }
+        durable.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void compact_doesNothingWithoutNewRecords() throws Exception {
+        Path snapshotFile = stateDirectory.resolve("snapshot.bin");
+        try (WriteAheadLog log = openLog(0, Map.of());
+             Compactor compactor = new Compactor(this::liveData, log, snapshotFile, 0)) {
+            assertFalse(compactor.compact());
+            assertFalse(Files.exists(snapshotFile));
+        }
+    }
+
+    @Test
+    public void compact_snapshotPlusRemainingLogMatchesLiveStateWhileWritersRun() throws Exception {
+        for (int i = 0; i < 50; i++)
+            users.add(new User("user" + i, "", "", "", ""));
+        Path snapshotFile = stateDirectory.resolve("snapshot.bin");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (WriteAheadLog log = openLog(0, Map.of());
+             Compactor compactor = new Compactor(this::liveData, log, snapshotFile, 0)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                writers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 2000; i++)
+                        deposit(compactor, log, users.get(random.nextInt(users.size())));
+                    return null;
+                }));
+            }
+
+            int compactions = 0;
+            while (!writers.stream().allMatch(Future::isDone))
+                if (compactor.compact())
+                    compactions += 1;
+            for (Future<?> writer : writers)
+                writer.get(60, TimeUnit.SECONDS);
+            assertTrue(compactions > 0);
+        } finally {
+            executor.shutdown();
+        }
+
+        SnapshotCodec.Snapshot snapshot = SnapshotCodec.readSnapshot(snapshotFile);
+        Map<String, User> recovered = new HashMap<>();
+        for (User user : snapshot.dataSet().users())
+            recovered.put(user.getUsername(), user);
+        openLog(snapshot.sequence(), recovered).close();
+
+        float total = 0;
+        for (User user : users) {
+            assertEquals(user.getCredit(), recovered.get(user.getUsername()).getCredit());
+            total += user.getCredit();
+        }
+        assertEquals(16_000, total);
+    }
+
+    @Test
+    public void compact_deletesCoveredSegments() throws Exception {
+        users.add(new User("ali", "", "", "", ""));
+        Path snapshotFile = stateDirectory.resolve("snapshot.bin");
+        try (WriteAheadLog log = openLog(0, Map.of());
+             Compactor compactor = new Compactor(this::liveData, log, snapshotFile, 0)) {
+            for (int i = 0; i < 3; i++) {
+                deposit(compactor, log, users.get(0));
+                assertTrue(compactor.compact());
+            }
+        }
+
+        try (var segments = Files.list(stateDirectory.resolve("wal"))) {
+            assertEquals(1, segments.count());
+        }
+        SnapshotCodec.Snapshot snapshot = SnapshotCodec.readSnapshot(snapshotFile);
+        assertEquals(3, snapshot.sequence());
+        assertEquals(3, snapshot.dataSet().users().get(0).getCredit());
+    }
+}
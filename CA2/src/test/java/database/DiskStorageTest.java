@@ -0,0 +1,120 @@
+package database;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiskStorageTest {
+    @TempDir
+    Path directory;
+
+    private void fill(StorageBackend storage) throws Exception {
+        DataSet dataSet = new SnapshotCodecTest().createDataSet();
+        storage.users().replaceAll(dataSet.users());
+        storage.providers().replaceAll(dataSet.providers());
+        storage.commodities().replaceAll(dataSet.commodities());
+        storage.comments().replaceAll(dataSet.comments());
+    }
+
+    @Test
+    public void reopen_restoresCheckpointedRecordsAndIndexes() throws Exception {
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            assertEquals(-1, storage.checkpointSequence());
+            fill(storage);
+            storage.checkpoint(5);
+        }
+
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            assertEquals(5, storage.checkpointSequence());
+            assertEquals(1000, storage.users().findByUsername("ali").getCredit());
+            assertEquals("1", storage.providers().findIdByName("apple"));
+            assertEquals("iPhone", storage.commodities().findByProvider("1").get(0).getName());
+            assertEquals("iPhone", storage.commodities().findByCategory("tech").get(0).getName());
+            assertEquals(7, storage.commodities().findById("1").getInStock());
+            assertEquals("good", storage.comments().findByCommodity(1).get(0).getText());
+            assertEquals(1, storage.comments().findById(3).getDislike());
+        }
+    }
+
+    @Test
+    public void reopen_dropsChangesMadeAfterLastCheckpoint() throws Exception {
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            fill(storage);
+            storage.checkpoint(1);
+
+            User user = storage.users().findByUsername("ali");
+            user.addCredit(500);
+            storage.users().update(user);
+            storage.users().insert(new User("amin", "", "", "", ""));
+        }
+
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            assertEquals(1000, storage.users().findByUsername("ali").getCredit());
+            assertNull(storage.users().findByUsername("amin"));
+            assertEquals(1, storage.users().count());
+        }
+    }
+
+    @Test
+    public void findById_returnsSameInstanceWhileInUse() throws Exception {
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            fill(storage);
+            Commodity commodity = storage.commodities().findById("1");
+            assertSame(commodity, storage.commodities().findById("1"));
+            assertSame(commodity, storage.commodities().findByCategory("phone").get(0));
+            assertFalse(storage.users().insert(new User("ali", "", "", "", "")));
+        }
+    }
+
+    @Test
+    public void findAll_keepsDecodedListingUntilInsert() throws Exception {
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            fill(storage);
+            WeakReference<Commodity> listed = new WeakReference<>(storage.commodities().findAll().get(0));
+            System.gc();
+            assertNotNull(listed.get());
+            assertSame(listed.get(), storage.commodities().findAll().get(0));
+
+            int before = storage.commodities().findAll().size();
+            Commodity added = new Commodity();
+            added.setId("9");
+            added.setCategories(new ArrayList<>(List.of("phone")));
+            storage.commodities().insert(added);
+            assertEquals(before + 1, storage.commodities().findAll().size());
+        }
+    }
+
+    @Test
+    public void reopen_rewritesFilesMostlyHoldingOverwrittenRecords() throws Exception {
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            fill(storage);
+            User user = storage.users().findByUsername("ali");
+            for (int i = 0; i < 100; i++) {
+                user.addCredit(1);
+                storage.users().update(user);
+            }
+            storage.checkpoint(100);
+        }
+
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            assertEquals(1100, storage.users().findByUsername("ali").getCredit());
+        }
+        try (var files = Files.list(directory)) {
+            List<String> names = new ArrayList<>(files.map(file -> file.getFileName().toString()).sorted().toList());
+            assertEquals(List.of("checkpoint", "comments.1.kv", "commodities.1.kv", "providers.1.kv", "users.1.kv"),
+                    names);
+        }
+        try (DiskStorage storage = new DiskStorage(directory)) {
+            assertEquals(100, storage.checkpointSequence());
+            assertEquals(1100, storage.users().findByUsername("ali").getCredit());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package database;
+
+import model.Commodity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityVersionsTest {
+    EntityVersions versions;
+    Commodity commodity;
+
+    @BeforeEach
+    public void init() {
+        versions = new EntityVersions();
+        commodity = new Commodity();
+        commodity.setId("1");
+        commodity.setProviderId("7");
+    }
+
+    @Test
+    public void changeMovesTagsOfCommodityAndItsLists() {
+        versions.commodityChanged(commodity);
+        String commodityTag = versions.commodityTag("1");
+        String catalogTag = versions.catalogTag();
+        String providerCatalogTag = versions.providerCatalogTag("7");
+        String otherProviderTag = versions.providerCatalogTag("8");
+
+        versions.commodityChanged(commodity);
+
+        assertNotEquals(commodityTag, versions.commodityTag("1"));
+        assertNotEquals(catalogTag, versions.catalogTag());
+        assertNotEquals(providerCatalogTag, versions.providerCatalogTag("7"));
+        assertEquals(otherProviderTag, versions.providerCatalogTag("8"));
+    }
+
+    @Test
+    public void unknownRecordHasNoTag() {
+        assertNull(versions.commodityTag("1"));
+        assertNull(versions.providerTag("7"));
+    }
+
+    @Test
+    public void reloadDoesNotReuseTags() {
+        versions.commodityChanged(commodity);
+        String before = versions.commodityTag("1");
+
+        versions.commoditiesReplaced();
+        versions.commodityChanged(commodity);
+
+        assertNotEquals(before, versions.commodityTag("1"));
+    }
+}
@@ -0,0 +1,56 @@
+package database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdGeneratorTest {
+    @TempDir
+    Path stateDirectory;
+
+    @Test
+    public void nextId_isSequential() {
+        IdGenerator idGenerator = new IdGenerator(stateDirectory.resolve("ids"));
+        assertEquals(0, idGenerator.nextId());
+        assertEquals(1, idGenerator.nextId());
+    }
+
+    @Test
+    public void advancePast_skipsLoadedIds() {
+        IdGenerator idGenerator = new IdGenerator(stateDirectory.resolve("ids"));
+        idGenerator.advancePast(41);
+        assertEquals(42, idGenerator.nextId());
+    }
+
+    @Test
+    public void nextId_neverRepeatsAfterRestart() {
+        IdGenerator idGenerator = new IdGenerator(stateDirectory.resolve("ids"));
+        int last = 0;
+        for (int i = 0; i < 1500; i++)
+            last = idGenerator.nextId();
+
+        IdGenerator restarted = new IdGenerator(stateDirectory.resolve("ids"));
+        assertTrue(restarted.nextId() > last);
+    }
+
+    @Test
+    public void nextId_isUniqueUnderConcurrency() throws Exception {
+        IdGenerator idGenerator = new IdGenerator(stateDirectory.resolve("ids"));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            futures.add(executor.submit(idGenerator::nextId));
+
+        Set<Integer> ids = new HashSet<>();
+        for (Future<Integer> future : futures)
+            ids.add(future.get(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(10_000, ids.size());
+    }
+}
@@ -0,0 +1,78 @@
+package database;
+
+import model.Commodity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapCommodityStoreTest {
+    private static Commodity commodity(int id, String category) {
+        Commodity commodity = new Commodity();
+        commodity.setId(String.valueOf(id));
+        commodity.setName("Commodity " + id);
+        commodity.setProviderId(String.valueOf(id % 3));
+        commodity.setPrice(100 + id);
+        commodity.setCategories(new ArrayList<>(List.of(category)));
+        commodity.setInStock(10);
+        return commodity;
+    }
+
+    @Test
+    public void findById_decodesStoredCommodity() {
+        OffHeapCommodityStore store = new OffHeapCommodityStore();
+        store.replaceAll(new ArrayList<>(List.of(commodity(1, "phone"), commodity(2, "tech"))));
+
+        System.gc();
+        Commodity found = store.findById("2");
+        assertEquals("Commodity 2", found.getName());
+        assertEquals(102, found.getPrice());
+        assertEquals(List.of("tech"), found.getCategories());
+        assertEquals(10, found.getInStock());
+        assertSame(found, store.findById("2"));
+        assertNull(store.findById("3"));
+    }
+
+    @Test
+    public void update_isVisibleAfterInstanceIsDropped() {
+        OffHeapCommodityStore store = new OffHeapCommodityStore();
+        store.insert(commodity(1, "phone"));
+
+        Commodity commodity = store.findById("1");
+        commodity.addRate("ali", 7);
+        commodity.setInStock(4);
+        store.update(commodity);
+        commodity = null;
+        System.gc();
+
+        Commodity reloaded = store.findById("1");
+        assertEquals(4, reloaded.getInStock());
+        assertEquals(7, reloaded.getUserRate().get("ali"));
+    }
+
+    @Test
+    public void update_evacuatesSupersededSlabsWithoutLosingRecords() {
+        OffHeapCommodityStore store = new OffHeapCommodityStore(4096);
+        ArrayList<Commodity> commodities = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            commodities.add(commodity(i, i % 2 == 0 ? "phone" : "tech"));
+        store.replaceAll(commodities);
+        long reservedBefore = store.reservedBytes();
+
+        for (int round = 0; round < 20; round++)
+            for (Commodity commodity : commodities) {
+                commodity.setInStock(round);
+                store.update(commodity);
+            }
+
+        assertTrue(store.reservedBytes() <= 2 * reservedBefore);
+        assertEquals(200, store.count());
+        assertEquals(100, store.findByCategory("phone").size());
+        commodities.clear();
+        System.gc();
+        for (int i = 0; i < 200; i++)
+            assertEquals(19, store.findById(String.valueOf(i)).getInStock());
+    }
+}
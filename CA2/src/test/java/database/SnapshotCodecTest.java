@@ -0,0 +1,72 @@
+package database;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotCodecTest {
+    @TempDir
+    Path stateDirectory;
+
+    public DataSet createDataSet() throws Exception {
+        User user = new User("ali", "123", "ali@gmail.com", "2000-01-01", "Tehran, Iran");
+        user.addCredit(1000);
+        user.getBuyList().put("1", 2);
+        user.getPurchasedList().put("2", 1);
+
+        Provider provider = new Provider();
+        provider.setId("1");
+        provider.setName("apple");
+
+        Commodity commodity = new Commodity();
+        commodity.setId("1");
+        commodity.setName("iPhone");
+        commodity.setProviderId("1");
+        commodity.setPrice(100);
+        commodity.setCategories(new ArrayList<>(List.of("phone", "tech")));
+        commodity.setInStock(7);
+        commodity.addRate("ali", 6);
+
+        Comment comment = new Comment(3, "ali@gmail.com", "ali", 1, "good");
+        comment.addUserVote("amin", Vote.DISLIKE);
+
+        return new DataSet(new ArrayList<>(List.of(user)), new ArrayList<>(List.of(provider)),
+                new ArrayList<>(List.of(commodity)), new ArrayList<>(List.of(comment)));
+    }
+
+    @Test
+    public void writeThenRead_preservesRecords() throws Exception {
+        Path file = stateDirectory.resolve("snapshot.bin");
+        SnapshotCodec.write(file, createDataSet());
+
+        DataSet dataSet = SnapshotCodec.read(file);
+
+        User user = dataSet.users().get(0);
+        assertEquals("ali", user.getUsername());
+        assertEquals(1000, user.getCredit());
+        assertEquals(2, user.getBuyList().get("1"));
+        assertEquals(1, user.getPurchasedList().get("2"));
+
+        assertEquals("apple", dataSet.providers().get(0).getName());
+        assertNull(dataSet.providers().get(0).getImage());
+
+        Commodity commodity = dataSet.commodities().get(0);
+        assertEquals("iPhone", commodity.getName());
+        assertEquals(List.of("phone", "tech"), commodity.getCategories());
+        assertEquals(7, commodity.getInStock());
+        assertEquals(3, commodity.getRating());
+        assertEquals(6, commodity.getUserRate().get("ali"));
+
+        Comment comment = dataSet.comments().get(0);
+        assertEquals(3, comment.getId());
+        assertEquals("good", comment.getText());
+        assertEquals(1, comment.getDislike());
+        assertEquals(Vote.DISLIKE, comment.getUserVote().get("amin"));
+    }
+}
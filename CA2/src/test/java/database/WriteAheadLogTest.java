@@ -0,0 +1,165 @@
+package database;
+
+import model.Vote;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+    @TempDir
+    Path stateDirectory;
+
+    private WriteAheadLog open(List<WriteAheadLog.Entry> replayed) throws Exception {
+        return open(0, replayed);
+    }
+
+    private WriteAheadLog open(long afterSequence, List<WriteAheadLog.Entry> replayed) throws Exception {
+        return WriteAheadLog.open(stateDirectory.resolve("wal"), afterSequence, Duration.ofMillis(1), 64,
+                replayed::add);
+    }
+
+    @Test
+    public void open_replaysAppendedMutationsInOrder() throws Exception {
+        List<Mutation> mutations = List.of(
+                new Mutation.Signup("ali", "123", "ali@gmail.com", "2000-01-01", null),
+                new Mutation.Credit("ali", 50.5f),
+                new Mutation.BuyListAdd("ali", "1"),
+                new Mutation.Purchase("ali", 100, Map.of("1", 2)),
+                new Mutation.Rate("1", "ali", 7),
+                new Mutation.AddComment(4, "ali@gmail.com", "ali", 1, "good", "2023-05-01 10:00:00"),
+                new Mutation.CommentVote(4, "amin", Vote.DISLIKE),
+                new Mutation.CommentVote(4, "amin", null),
+                new Mutation.BuyListRemove("ali", "1"));
+
+        try (WriteAheadLog log = open(new ArrayList<>())) {
+            for (Mutation mutation : mutations)
+                log.append(mutation).get(10, TimeUnit.SECONDS);
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        open(replayed).close();
+
+        assertEquals(mutations, replayed.stream().map(WriteAheadLog.Entry::mutation).toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L),
+                replayed.stream().map(WriteAheadLog.Entry::sequence).toList());
+    }
+
+    @Test
+    public void open_dropsTornTailAndKeepsAppending() throws Exception {
+        try (WriteAheadLog log = open(new ArrayList<>())) {
+            log.append(new Mutation.Credit("ali", 1)).get(10, TimeUnit.SECONDS);
+            log.append(new Mutation.Credit("ali", 2)).get(10, TimeUnit.SECONDS);
+        }
+        Path file = stateDirectory.resolve("wal").resolve("00000000000000000001.log");
+        Files.write(file, new byte[]{0, 0, 0, 9, 0, 0}, StandardOpenOption.APPEND);
+
+        try (WriteAheadLog log = open(new ArrayList<>())) {
+            assertEquals(3L, log.append(new Mutation.Credit("ali", 3)).get(10, TimeUnit.SECONDS));
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        open(replayed).close();
+        assertEquals(3, replayed.size());
+        assertEquals(new Mutation.Credit("ali", 3), replayed.get(2).mutation());
+    }
+
+    @Test
+    public void append_groupsConcurrentAppendsWithoutLosingAny() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        try (WriteAheadLog log = open(new ArrayList<>())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String username = "user" + i;
+                futures.add(executor.submit(() ->
+                        sequences.add(log.append(new Mutation.Credit(username, 1)).join())));
+            }
+            for (Future<?> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        open(replayed).close();
+        assertEquals(2000, sequences.size());
+        assertEquals(2000, replayed.size());
+    }
+
+    @Test
+    public void deleteSegmentsThrough_keepsRecordsAfterRotation() throws Exception {
+        try (WriteAheadLog log = open(new ArrayList<>())) {
+            log.append(new Mutation.Credit("ali", 1)).get(10, TimeUnit.SECONDS);
+            log.append(new Mutation.Credit("ali", 2)).get(10, TimeUnit.SECONDS);
+            assertEquals(2L, log.rotate().get(10, TimeUnit.SECONDS));
+            log.append(new Mutation.Credit("ali", 3)).get(10, TimeUnit.SECONDS);
+            log.deleteSegmentsThrough(2);
+        }
+
+        try (var segments = Files.list(stateDirectory.resolve("wal"))) {
+            assertEquals(1, segments.count());
+        }
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        open(2, replayed).close();
+        assertEquals(List.of(new WriteAheadLog.Entry(3, new Mutation.Credit("ali", 3))), replayed);
+    }
+
+    @Test
+    public void open_skipsRecordsCoveredBySnapshot() throws Exception {
+        try (WriteAheadLog log = open(new ArrayList<>())) {
+            for (int i = 1; i <= 3; i++)
+                log.append(new Mutation.Credit("ali", i)).get(10, TimeUnit.SECONDS);
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        try (WriteAheadLog log = open(2, replayed)) {
+            assertEquals(4L, log.append(new Mutation.Credit("ali", 4)).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(3L), replayed.stream().map(WriteAheadLog.Entry::sequence).toList());
+    }
+
+    @Test
+    public void open_startsNewSegmentWhenSnapshotIsAheadOfLog() throws Exception {
+        try (WriteAheadLog log = open(new ArrayList<>())) {
+            log.append(new Mutation.Credit("ali", 1)).get(10, TimeUnit.SECONDS);
+        }
+
+        try (WriteAheadLog log = open(10, new ArrayList<>())) {
+            assertEquals(11L, log.append(new Mutation.Credit("ali", 2)).get(10, TimeUnit.SECONDS));
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        open(10, replayed).close();
+        assertEquals(List.of(11L), replayed.stream().map(WriteAheadLog.Entry::sequence).toList());
+    }
+
+    @Test
+    public void append_failsAfterClose() throws Exception {
+        WriteAheadLog log = open(new ArrayList<>());
+        log.close();
+        assertThrows(ExecutionException.class, () -> log.append(new Mutation.Credit("ali", 1)).get());
+    }
+
+    @Test
+    public void checkWritable_failsOnceLogHasFailed() throws Exception {
+        try (WriteAheadLog log = open(new ArrayList<>())) {
+            log.append(new Mutation.Credit("ali", 1)).get(10, TimeUnit.SECONDS);
+            log.checkWritable();
+
+            // A directory where the next segment should go makes the rotation fail.
+            Files.createDirectory(stateDirectory.resolve("wal").resolve("00000000000000000002.log"));
+            assertThrows(ExecutionException.class, () -> log.rotate().get(10, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, log::checkWritable);
+            assertTrue(log.append(new Mutation.Credit("ali", 2)).isCompletedExceptionally());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CommentTest {
+    Comment comment;
+
+    @BeforeEach
+    public void init() {
+        comment = new Comment(0, "user@gmail.com", "user", 1, "good");
+    }
+
+    @Test
+    public void addUserVote_countsLikesAndDislikes() {
+        comment.addUserVote("user1", Vote.LIKE);
+        comment.addUserVote("user2", Vote.LIKE);
+        comment.addUserVote("user3", "dislike");
+        assertEquals(2, comment.getLike());
+        assertEquals(1, comment.getDislike());
+    }
+
+    @Test
+    public void addUserVote_userChangesVote() {
+        comment.addUserVote("user1", Vote.LIKE);
+        comment.addUserVote("user1", Vote.LIKE);
+        comment.addUserVote("user1", Vote.DISLIKE);
+        assertEquals(0, comment.getLike());
+        assertEquals(1, comment.getDislike());
+    }
+
+    @Test
+    public void addUserVote_unknownVoteRetractsVote() {
+        comment.addUserVote("user1", Vote.LIKE);
+        comment.addUserVote("user1", "meh");
+        assertEquals(0, comment.getLike());
+        assertEquals(0, comment.getUserVote().size());
+    }
+
+    @Test
+    public void addUserVote_concurrentVoters() throws Exception {
+        int numberOfUsers = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfUsers; i++) {
+            String username = "user" + i;
+            Vote finalVote = i % 3 == 0 ? Vote.DISLIKE : Vote.LIKE;
+            futures.add(executor.submit(() -> {
+                start.await();
+                comment.addUserVote(username, Vote.LIKE);
+                comment.addUserVote(username, Vote.DISLIKE);
+                comment.addUserVote(username, finalVote);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        int dislikes = (numberOfUsers + 2) / 3;
+        assertEquals(numberOfUsers - dislikes, comment.getLike());
+        assertEquals(dislikes, comment.getDislike());
+    }
+}
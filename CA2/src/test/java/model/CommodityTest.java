@@ -0,0 +1,77 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommodityTest {
+    Commodity commodity;
+
+    @BeforeEach
+    public void init() {
+        commodity = new Commodity();
+        commodity.setRating(8);
+    }
+
+    @Test
+    public void getRating_withoutRaters_returnsInitialRating() {
+        assertEquals(8, commodity.getRating());
+    }
+
+    @Test
+    public void addRate_newRaters() {
+        commodity.addRate("user1", 4);
+        commodity.addRate("user2", 8);
+        assertEquals(4, commodity.getRating(), 0.0001);
+    }
+
+    @Test
+    public void addRate_userChangesRate() {
+        commodity.addRate("user1", 4);
+        commodity.addRate("user2", 8);
+        commodity.addRate("user1", 10);
+        assertEquals(6, commodity.getRating(), 0.0001);
+        assertEquals(2, commodity.getUserRate().size());
+    }
+
+    @Test
+    public void addRate_concurrentRaters() throws Exception {
+        int numberOfUsers = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfUsers; i++) {
+            String username = "user" + i;
+            futures.add(executor.submit(() -> {
+                commodity.addRate(username, 1);
+                commodity.addRate(username, 4);
+            }));
+        }
+        for (Future<?> future : futures)
+            future.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(4f * numberOfUsers / (numberOfUsers + 1), commodity.getRating(), 0.0001);
+    }
+
+    @Test
+    public void categoriesAndProvider_roundTripThroughDictionary() {
+        commodity.setProviderId("7");
+        commodity.setCategories(new ArrayList<>(List.of("phone", "tech")));
+
+        Commodity other = new Commodity();
+        other.setCategories(new ArrayList<>(List.of("tech")));
+
+        assertEquals("7", commodity.getProviderId());
+        assertEquals(List.of("phone", "tech"), commodity.getCategories());
+        assertSame(commodity.getCategories().get(1), other.getCategories().get(0));
+        assertTrue(commodity.hasCategory("tech"));
+        assertFalse(commodity.hasCategory("laptop"));
+        assertFalse(commodity.hasCategory("never-seen-category"));
+        assertNull(other.getProviderId());
+    }
+}
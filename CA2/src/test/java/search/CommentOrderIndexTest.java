@@ -0,0 +1,41 @@
+package search;
+
+import model.Comment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommentOrderIndexTest {
+    CommentOrderIndex commentOrderIndex;
+
+    @BeforeEach
+    public void init() {
+        commentOrderIndex = new CommentOrderIndex();
+        for (int id : new int[]{5, 1, 3, 2, 4})
+            commentOrderIndex.add(new Comment(id, "ali@ut.ac.ir", "ali", 1, "text" + id));
+        commentOrderIndex.add(new Comment(6, "ali@ut.ac.ir", "ali", 2, "other"));
+    }
+
+    @Test
+    public void page_seeksFromCursorInIdOrder() {
+        List<Integer> seen = new ArrayList<>();
+        SortKey after = null;
+        do {
+            Page<Integer> page = commentOrderIndex.page(1, after, 2);
+            seen.addAll(page.items());
+            after = page.next();
+        } while (after != null);
+        assertEquals(List.of(1, 2, 3, 4, 5), seen);
+    }
+
+    @Test
+    public void page_ofCommodityWithoutComments_isEmpty() {
+        Page<Integer> page = commentOrderIndex.page(9, null, 10);
+        assertTrue(page.items().isEmpty());
+        assertNull(page.next());
+    }
+}
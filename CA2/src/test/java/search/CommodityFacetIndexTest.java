@@ -0,0 +1,85 @@
+package search;
+
+import model.Commodity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.Ordinals;
+import utils.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommodityFacetIndexTest {
+    CommodityFacetIndex facetIndex;
+    List<Commodity> commodities;
+
+    public Commodity createCommodity(String id, int price, String providerId, String... categories) {
+        Commodity commodity = new Commodity();
+        commodity.setId(id);
+        commodity.setPrice(price);
+        commodity.setProviderId(providerId);
+        commodity.setCategories(new ArrayList<>(List.of(categories)));
+        return commodity;
+    }
+
+    @BeforeEach
+    public void init() {
+        facetIndex = new CommodityFacetIndex();
+        commodities = List.of(
+                createCommodity("facet-1", 100, "facet-p1", "phone", "tech"),
+                createCommodity("facet-2", 250, "facet-p1", "tv"),
+                createCommodity("facet-3", 300, "facet-p2", "phone"),
+                createCommodity("facet-4", 50, "facet-p2", "phone"));
+        commodities.forEach(facetIndex::add);
+    }
+
+    public List<String> ids(RoaringBitmap ordinals) {
+        List<String> ids = new ArrayList<>();
+        ordinals.forEach(ordinal -> ids.add(Ordinals.COMMODITY_IDS.valueOf(ordinal)));
+        return ids;
+    }
+
+    @Test
+    public void match_intersectsFacets() {
+        assertEquals(List.of("facet-1", "facet-3", "facet-4"),
+                ids(facetIndex.match(CommodityFilter.byCategory("phone"))));
+        assertEquals(List.of("facet-3", "facet-4"),
+                ids(facetIndex.match(new CommodityFilter(null, null, List.of("phone"), "facet-p2", null))));
+        assertEquals(List.of("facet-1", "facet-3"),
+                ids(facetIndex.match(new CommodityFilter(100, 300, List.of("phone"), null, null))));
+        assertEquals(List.of("facet-2"),
+                ids(facetIndex.match(new CommodityFilter(200, 260, null, null, null))));
+    }
+
+    @Test
+    public void match_unionsCategories() {
+        assertEquals(List.of("facet-3", "facet-4"),
+                ids(facetIndex.match(new CommodityFilter(null, null, List.of("tv", "phone"), "facet-p2", null))));
+        assertEquals(List.of("facet-1", "facet-2", "facet-3", "facet-4"),
+                ids(facetIndex.match(new CommodityFilter(null, null, List.of("tv", "phone"), null, null))));
+    }
+
+    @Test
+    public void match_unknownFacetValueMatchesNothing() {
+        assertTrue(facetIndex.match(CommodityFilter.byCategory("facet-unknown")).isEmpty());
+        assertTrue(facetIndex.match(CommodityFilter.byProvider("facet-unknown")).isEmpty());
+    }
+
+    @Test
+    public void match_returnsNullWithoutIndexedFacets() {
+        assertNull(facetIndex.match(new CommodityFilter(null, null, null, null, 5f)));
+    }
+
+    @Test
+    public void add_reindexesChangedPrice() {
+        commodities.get(3).setPrice(280);
+        facetIndex.add(commodities.get(3));
+
+        assertEquals(List.of("facet-2", "facet-4"),
+                ids(facetIndex.match(new CommodityFilter(200, 290, null, null, null))));
+        assertEquals(List.of("facet-1"),
+                ids(facetIndex.match(new CommodityFilter(0, 100, null, null, null))));
+    }
+}
@@ -0,0 +1,89 @@
+package search;
+
+import model.Commodity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.Ordinals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommodityOrderIndexTest {
+    CommodityOrderIndex orderIndex;
+    List<Commodity> commodities;
+
+    public Commodity createCommodity(String id, String name, int price) {
+        Commodity commodity = new Commodity();
+        commodity.setId(id);
+        commodity.setName(name);
+        commodity.setPrice(price);
+        return commodity;
+    }
+
+    @BeforeEach
+    public void init() {
+        orderIndex = new CommodityOrderIndex();
+        commodities = List.of(
+                createCommodity("1", "iPhone", 300),
+                createCommodity("2", "Galaxy", 100),
+                createCommodity("3", "Pixel", 200),
+                createCommodity("4", "Nokia", 100));
+        commodities.forEach(orderIndex::add);
+    }
+
+    public List<String> walk(CommodityOrderIndex.Sort sort, boolean descending, int limit) {
+        List<String> ids = new ArrayList<>();
+        SortKey after = null;
+        do {
+            Page<String> page = orderIndex.page(sort, descending, after, limit);
+            assertTrue(page.items().size() <= limit);
+            ids.addAll(page.items());
+            after = page.next() == null ? null : SortKey.decode(page.next().encode(sort.name()), sort.name());
+        } while (after != null);
+        return ids;
+    }
+
+    @Test
+    public void page_walksWholeOrderThroughCursors() {
+        assertEquals(List.of("2", "4", "3", "1"), walk(CommodityOrderIndex.Sort.PRICE, false, 3));
+        assertEquals(List.of("1", "3", "4", "2"), walk(CommodityOrderIndex.Sort.PRICE, true, 1));
+        assertEquals(List.of("2", "1", "4", "3"), walk(CommodityOrderIndex.Sort.NAME, false, 2));
+    }
+
+    @Test
+    public void add_movesChangedCommodity() {
+        commodities.get(0).setPrice(50);
+        orderIndex.add(commodities.get(0));
+
+        assertEquals(List.of("1", "2", "4", "3"), walk(CommodityOrderIndex.Sort.PRICE, false, 10));
+    }
+
+    @Test
+    public void page_hasNoCursorOnLastPage() {
+        assertNull(orderIndex.page(CommodityOrderIndex.Sort.ID, false, null, 4).next());
+        assertNotNull(orderIndex.page(CommodityOrderIndex.Sort.ID, false, null, 3).next());
+    }
+
+    @Test
+    public void decode_rejectsCursorOfAnotherOrder() {
+        String cursor = new SortKey(100, "", "2").encode("PRICE");
+        assertThrows(IllegalArgumentException.class, () -> SortKey.decode(cursor, "NAME"));
+        assertThrows(IllegalArgumentException.class, () -> SortKey.decode("%%%", "PRICE"));
+    }
+
+    @Test
+    public void highestRated_addsTopPreferredBelowOverallTop() {
+        float[] ratings = {9, 8, 7, 1};
+        for (int i = 0; i < commodities.size(); i++) {
+            commodities.get(i).setRating(ratings[i]);
+            orderIndex.add(commodities.get(i));
+        }
+
+        int preferred = Ordinals.COMMODITY_IDS.intern("4");
+        assertEquals(List.of("1", "2", "4"),
+                new ArrayList<>(orderIndex.highestRated(2, ordinal -> ordinal == preferred)));
+        assertEquals(List.of("1", "2", "3", "4"), new ArrayList<>(orderIndex.highestRated(4, ordinal -> false)));
+    }
+}
@@ -0,0 +1,89 @@
+package search;
+
+import model.Commodity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommoditySearchIndexTest {
+    CommoditySearchIndex searchIndex;
+
+    public Commodity createCommodity(String id, String name, String... categories) {
+        Commodity commodity = new Commodity();
+        commodity.setId(id);
+        commodity.setName(name);
+        commodity.setCategories(new ArrayList<>(List.of(categories)));
+        return commodity;
+    }
+
+    @BeforeEach
+    public void init() {
+        searchIndex = new CommoditySearchIndex();
+        searchIndex.add(createCommodity("1", "iPhone 14", "phone", "tech"));
+        searchIndex.add(createCommodity("2", "Galaxy S22", "phone", "tech"));
+        searchIndex.add(createCommodity("3", "Headphones", "audio"));
+    }
+
+    @Test
+    public void nameCandidates_coverEveryNameContainingText() {
+        assertEquals(Set.of("1", "3"), searchIndex.nameCandidates("phone"));
+        assertEquals(Set.of("1", "3"), searchIndex.nameCandidates("Ph"));
+        assertEquals(Set.of("1", "3"), searchIndex.nameCandidates("one 1"));
+        assertEquals(Set.of(), searchIndex.nameCandidates("sony"));
+        assertNull(searchIndex.nameCandidates(" "));
+    }
+
+    @Test
+    public void search_isCaseInsensitive() {
+        var res = searchIndex.search("IPHONE");
+        assertEquals(1, res.size());
+        assertEquals("1", res.get(0).getId());
+    }
+
+    @Test
+    public void search_matchesPrefix() {
+        var res = searchIndex.search("gal");
+        assertEquals(1, res.size());
+        assertEquals("2", res.get(0).getId());
+    }
+
+    @Test
+    public void search_matchesInsideTerm() {
+        var res = searchIndex.search("phones");
+        assertEquals(1, res.size());
+        assertEquals("3", res.get(0).getId());
+    }
+
+    @Test
+    public void search_ranksExactAboveInsideTerm() {
+        var res = searchIndex.search("phone");
+        assertEquals(3, res.size());
+        assertEquals("3", res.get(2).getId());
+    }
+
+    @Test
+    public void search_addsScoresOfEveryToken() {
+        var res = searchIndex.search("galaxy phone");
+        assertEquals("2", res.get(0).getId());
+    }
+
+    @Test
+    public void search_seesCommoditiesAddedLater() {
+        searchIndex.add(createCommodity("4", "Pixel 7", "phone"));
+        var res = searchIndex.search("pixel");
+        assertEquals(1, res.size());
+        assertEquals("4", res.get(0).getId());
+    }
+
+    @Test
+    public void search_unknownTerm() {
+        assertTrue(searchIndex.search("laptop").isEmpty());
+    }
+}
@@ -0,0 +1,182 @@
+package service;
+
+import exceptions.InsufficientCredit;
+import exceptions.InvalidCreditRange;
+import exceptions.NotInStock;
+import model.Commodity;
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckoutEngineTest {
+    CheckoutEngine checkoutEngine;
+    Map<String, Commodity> commodities;
+
+    public Commodity createCommodity(String id, int price, int inStock) {
+        Commodity commodity = new Commodity();
+        commodity.setId(id);
+        commodity.setPrice(price);
+        commodity.setInStock(inStock);
+        commodities.put(id, commodity);
+        return commodity;
+    }
+
+    public User createUser(String username, float credit, Commodity... buyList) throws InvalidCreditRange {
+        User user = new User(username, "", "", "", "");
+        user.addCredit(credit);
+        for (Commodity commodity : buyList)
+            user.addBuyItem(commodity);
+        return user;
+    }
+
+    @BeforeEach
+    public void init() {
+        checkoutEngine = new CheckoutEngine();
+        commodities = new HashMap<>();
+    }
+
+    @Test
+    public void checkout_success() throws Exception {
+        Commodity commodity = createCommodity("1", 10, 5);
+        User user = createUser("user1", 100, commodity, commodity);
+
+        checkoutEngine.checkout(user, commodities::get);
+
+        assertEquals(3, commodity.getInStock());
+        assertEquals(80, user.getCredit());
+        assertTrue(user.getBuyList().isEmpty());
+        assertEquals(2, user.getPurchasedList().get("1"));
+    }
+
+    @Test
+    public void checkout_notInStock_rollsBack() throws Exception {
+        Commodity available = createCommodity("1", 10, 5);
+        Commodity soldOut = createCommodity("2", 10, 0);
+        User user = createUser("user1", 100, available, soldOut);
+
+        assertThrows(NotInStock.class, () -> checkoutEngine.checkout(user, commodities::get));
+
+        assertEquals(5, available.getInStock());
+        assertEquals(100, user.getCredit());
+        assertEquals(2, user.getBuyList().size());
+        assertTrue(user.getPurchasedList().isEmpty());
+    }
+
+    @Test
+    public void checkout_insufficientCredit_rollsBack() throws Exception {
+        Commodity commodity = createCommodity("1", 10, 5);
+        User user = createUser("user1", 5, commodity);
+
+        assertThrows(InsufficientCredit.class, () -> checkoutEngine.checkout(user, commodities::get));
+
+        assertEquals(5, commodity.getInStock());
+        assertEquals(5, user.getCredit());
+        assertEquals(1, user.getBuyList().size());
+    }
+
+    @Test
+    public void checkout_failingCheckoutNeverHoldsStockOfOthers() throws Exception {
+        Commodity shared = createCommodity("1", 1, 1);
+        CountDownLatch paused = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        Commodity soldOut = new Commodity() {
+            @Override
+            public int getInStock() {
+                paused.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 0;
+            }
+
+            @Override
+            public boolean tryReserve(int amount) {
+                getInStock();
+                return false;
+            }
+        };
+        soldOut.setId("2");
+        commodities.put("2", soldOut);
+        User doomed = createUser("doomed", 10, shared, soldOut);
+        User buyer = createUser("buyer", 10, shared);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> failing = executor.submit(() -> checkoutEngine.checkout(doomed, commodities::get));
+        paused.await();
+        AtomicReference<Exception> buyerFailure = new AtomicReference<>();
+        Thread buying = new Thread(() -> {
+            try {
+                checkoutEngine.checkout(buyer, commodities::get);
+            } catch (Exception e) {
+                buyerFailure.set(e);
+            }
+        });
+        buying.start();
+        while (buying.isAlive() && buying.getState() != Thread.State.BLOCKED)
+            Thread.onSpinWait();
+        resume.countDown();
+        buying.join();
+        ExecutionException doomedFailure = assertThrows(ExecutionException.class, failing::get);
+        executor.shutdown();
+
+        assertInstanceOf(NotInStock.class, doomedFailure.getCause());
+        assertNull(buyerFailure.get());
+        assertEquals(0, shared.getInStock());
+    }
+
+    @Test
+    public void checkout_underContention_neverOversells() throws Exception {
+        int numberOfUsers = 2000;
+        int stock = 300;
+        Commodity common = createCommodity("common", 3, numberOfUsers);
+        Commodity scarce = createCommodity("scarce", 7, stock);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < numberOfUsers; i++)
+            users.add(createUser("user" + i, 10, common, scarce));
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (User user : users) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    checkoutEngine.checkout(user, commodities::get);
+                    succeeded.incrementAndGet();
+                } catch (NotInStock e) {
+                    failed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(stock, succeeded.get());
+        assertEquals(numberOfUsers - stock, failed.get());
+        assertEquals(0, scarce.getInStock());
+        assertEquals(numberOfUsers - stock, common.getInStock());
+
+        float totalCredit = 0;
+        for (User user : users)
+            totalCredit += user.getCredit();
+        assertEquals(numberOfUsers * 10 - stock * 10, totalCredit, 0.001);
+    }
+}
@@ -0,0 +1,91 @@
+package service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+    ResponseCache cache;
+
+    @BeforeEach
+    public void init() {
+        cache = new ResponseCache(100);
+    }
+
+    public void putFresh(String key, int size) {
+        cache.put(key, cache.stamp(key), null, new byte[size]);
+    }
+
+    public void request(String key, int times) {
+        for (int i = 0; i < times; i++)
+            cache.get(key);
+    }
+
+    @Test
+    public void getReturnsStoredBodyAndTag() {
+        byte[] body = "[]".getBytes();
+        cache.put("/commodities", cache.stamp("/commodities"), "\"a-1\"", body);
+
+        ResponseCache.Entry entry = cache.get("/commodities");
+        assertArrayEquals(body, entry.body());
+        assertEquals("\"a-1\"", entry.etag());
+        assertEquals(1L, cache.getStats().get("hits"));
+    }
+
+    @Test
+    public void putIsRejectedWhenKeyWasInvalidatedWhileComputing() {
+        long stamp = cache.stamp("/commodities/1");
+        cache.invalidate("/commodities/1");
+        cache.put("/commodities/1", stamp, null, new byte[10]);
+
+        assertNull(cache.get("/commodities/1"));
+        assertEquals(1L, cache.getStats().get("rejections"));
+    }
+
+    @Test
+    public void invalidateRemovesEntry() {
+        putFresh("/commodities/1", 10);
+        cache.invalidate("/commodities/1");
+
+        assertNull(cache.get("/commodities/1"));
+        assertEquals(0L, cache.getStats().get("bytes"));
+    }
+
+    @Test
+    public void frequentKeyEvictsLeastRecentlyUsedColdEntries() {
+        request("/commodities/1", 1);
+        request("/commodities/2", 1);
+        putFresh("/commodities/1", 40);
+        putFresh("/commodities/2", 40);
+        request("/commodities", 5);
+        putFresh("/commodities", 40);
+
+        assertNull(cache.get("/commodities/1"));
+        assertNotNull(cache.get("/commodities/2"));
+        assertNotNull(cache.get("/commodities"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+        assertEquals(80L, cache.getStats().get("bytes"));
+    }
+
+    @Test
+    public void rareKeyIsNotAdmittedOverFrequentEntries() {
+        request("/commodities/1", 5);
+        request("/commodities/2", 5);
+        putFresh("/commodities/1", 50);
+        putFresh("/commodities/2", 50);
+        putFresh("/commodities/3", 10);
+
+        assertNull(cache.get("/commodities/3"));
+        assertNotNull(cache.get("/commodities/1"));
+        assertNotNull(cache.get("/commodities/2"));
+    }
+
+    @Test
+    public void bodyLargerThanCacheIsNeverStored() {
+        putFresh("/commodities", 101);
+
+        assertNull(cache.get("/commodities"));
+        assertEquals(0L, cache.getStats().get("entries"));
+    }
+}
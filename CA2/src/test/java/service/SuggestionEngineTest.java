@@ -0,0 +1,69 @@
+package service;
+
+import model.Commodity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestionEngineTest {
+    SuggestionEngine suggestionEngine;
+    ArrayList<Commodity> catalog;
+
+    public Commodity createCommodity(String id, float rating, String... categories) {
+        Commodity commodity = new Commodity();
+        commodity.setId(id);
+        commodity.setRating(rating);
+        commodity.setCategories(new ArrayList<>(List.of(categories)));
+        return commodity;
+    }
+
+    @BeforeEach
+    public void init() {
+        suggestionEngine = new SuggestionEngine();
+        catalog = new ArrayList<>();
+        catalog.add(createCommodity("1", 5, "phone"));
+        catalog.add(createCommodity("2", 1, "phone", "tech"));
+        catalog.add(createCommodity("3", 9, "tv"));
+        catalog.add(createCommodity("4", 8, "tv"));
+        catalog.add(createCommodity("5", 7, "tv"));
+        catalog.add(createCommodity("6", 2, "tv"));
+    }
+
+    public List<String> ids(List<Commodity> commodities) {
+        return commodities.stream().map(Commodity::getId).toList();
+    }
+
+    @Test
+    public void suggest_prefersSimilarCategoryThenRating() {
+        var res = suggestionEngine.suggest(catalog.get(0), () -> catalog);
+        assertEquals(List.of("2", "3", "4", "5"), ids(res));
+    }
+
+    @Test
+    public void suggest_excludesTheCommodityItself() {
+        var res = suggestionEngine.suggest(catalog.get(2), () -> catalog);
+        assertFalse(ids(res).contains("3"));
+    }
+
+    @Test
+    public void isInSimilarCategory() {
+        assertTrue(suggestionEngine.isInSimilarCategory(catalog.get(0), catalog.get(1)));
+        assertFalse(suggestionEngine.isInSimilarCategory(catalog.get(0), catalog.get(2)));
+    }
+
+    @Test
+    public void invalidate_afterRatingChange() {
+        suggestionEngine.suggest(catalog.get(0), () -> catalog);
+
+        Commodity changed = catalog.get(5);
+        changed.setRating(10);
+        suggestionEngine.invalidate(changed);
+
+        var res = suggestionEngine.suggest(catalog.get(0), () -> catalog);
+        assertEquals(List.of("2", "6", "3", "4"), ids(res));
+    }
+}
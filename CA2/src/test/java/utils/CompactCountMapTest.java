@@ -0,0 +1,69 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactCountMapTest {
+    @Test
+    public void behavesLikeMap() {
+        CompactCountMap<String> map = new CompactCountMap<>(CompactCountMap.COMMODITY_ID_KEYS);
+        assertNull(map.put("1", 2));
+        assertEquals(2, map.put("1", 3));
+        assertEquals(4, map.addTo("2", 4));
+        assertNull(map.get("never-interned"));
+        assertFalse(map.containsKey(1));
+        assertEquals(Map.of("1", 3, "2", 4), new HashMap<>(map));
+        assertEquals(Map.of("1", 3, "2", 4), map);
+        assertEquals(3, map.remove("1"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void unknownUsername_isKeptOutOfDictionary() {
+        CompactCountMap<String> rates = new CompactCountMap<>(CompactCountMap.USERNAME_KEYS);
+        assertNull(rates.put("not-registered", 3));
+        assertEquals(0, Ordinals.USERNAMES.find("not-registered"));
+        assertEquals(3, rates.get("not-registered"));
+
+        Ordinals.USERNAMES.intern("registered-later");
+        assertNull(rates.put("registered-later", 1));
+        assertEquals(Map.of("not-registered", 3, "registered-later", 1), rates);
+        assertEquals(3, rates.remove("not-registered"));
+        assertEquals(1, rates.size());
+    }
+
+    @Test
+    public void entrySet_writesThrough() {
+        CompactCountMap<String> map = new CompactCountMap<>(CompactCountMap.COMMODITY_ID_KEYS);
+        map.put("1", 1);
+        map.put("2", 2);
+        map.put("3", 3);
+
+        map.entrySet().removeIf(entry -> entry.getValue() == 2);
+        for (Map.Entry<String, Integer> entry : map.entrySet())
+            entry.setValue(entry.getValue() * 10);
+        map.keySet().remove("3");
+
+        assertEquals(Map.of("1", 10), map);
+    }
+
+    @Test
+    public void userJson_keepsMapShape() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        User user = objectMapper.readValue("""
+                {"username": "ali", "credit": 10, "buyList": {"1": 2}, "purchasedList": {"2": 1, "3": 4},
+                 "commoditiesRates": {"1": 7}}""", User.class);
+
+        Map<?, ?> json = objectMapper.readValue(objectMapper.writeValueAsString(user), Map.class);
+        assertEquals(Map.of("1", 2), json.get("buyList"));
+        assertEquals(Map.of("2", 1, "3", 4), json.get("purchasedList"));
+        assertEquals(Map.of("1", 7), json.get("commoditiesRates"));
+        assertEquals(7, user.getCommoditiesRates().get(1));
+    }
+}
@@ -0,0 +1,70 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntIntMapTest {
+    @Test
+    public void randomOperations_matchHashMap() {
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2000) - 100;
+            int value = random.nextInt(1000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    expected.put(key, value);
+                    map.put(key, value);
+                }
+                case 1 -> assertEquals(expected.remove(key) != null, map.remove(key));
+                default -> {
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    assertEquals(expected.getOrDefault(key, -1), map.get(key, -1));
+                }
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    public void zeroKey_isStoredLikeAnyOther() {
+        IntIntMap map = new IntIntMap();
+        assertFalse(map.containsKey(0));
+        map.put(0, 5);
+        assertEquals(6, map.addTo(0, 1));
+        assertEquals(1, map.size());
+        assertEquals(6, map.get(0, -1));
+        assertTrue(map.remove(0));
+        assertFalse(map.containsKey(0));
+    }
+
+    @Test
+    public void copy_isIndependent() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        IntIntMap copy = map.copy();
+        map.put(1, 2);
+        copy.put(2, 3);
+        assertEquals(1, copy.get(1, -1));
+        assertFalse(map.containsKey(2));
+    }
+
+    @Test
+    public void minValue_isStoredLikeAnyOther() {
+        IntIntMap map = new IntIntMap();
+        map.put(3, Integer.MIN_VALUE);
+        assertTrue(map.containsKey(3));
+        assertEquals(Integer.MIN_VALUE, map.get(3, 0));
+        assertEquals(1, map.size());
+    }
+}
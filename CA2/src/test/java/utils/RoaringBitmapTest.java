@@ -0,0 +1,85 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoaringBitmapTest {
+    // Values fall in a few chunks with sparse and dense regions, so chunks switch between representations.
+    private static int randomValue(Random random) {
+        int chunk = random.nextInt(4);
+        int low = chunk == 0 ? random.nextInt(6000) : random.nextInt(1 << 16);
+        return (chunk << 16) | low;
+    }
+
+    private static void assertSameValues(BitSet expected, RoaringBitmap bitmap) {
+        assertArrayEquals(expected.stream().toArray(), bitmap.toArray());
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+    }
+
+    @Test
+    public void randomOperations_matchBitSet() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            int value = randomValue(random);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    bitmap.add(value);
+                    expected.set(value);
+                }
+                case 1 -> {
+                    bitmap.remove(value);
+                    expected.clear(value);
+                }
+                default -> assertEquals(expected.get(value), bitmap.contains(value));
+            }
+        }
+        assertSameValues(expected, bitmap);
+    }
+
+    @Test
+    public void andOr_matchBitSet() {
+        Random random = new Random(13);
+        for (int round = 0; round < 20; round++) {
+            RoaringBitmap left = new RoaringBitmap();
+            RoaringBitmap right = new RoaringBitmap();
+            BitSet expectedLeft = new BitSet();
+            BitSet expectedRight = new BitSet();
+            int leftSize = random.nextInt(20_000);
+            int rightSize = random.nextInt(20_000);
+            for (int i = 0; i < leftSize; i++) {
+                int value = randomValue(random);
+                left.add(value);
+                expectedLeft.set(value);
+            }
+            for (int i = 0; i < rightSize; i++) {
+                int value = randomValue(random);
+                right.add(value);
+                expectedRight.set(value);
+            }
+
+            BitSet expectedAnd = (BitSet) expectedLeft.clone();
+            expectedAnd.and(expectedRight);
+            BitSet expectedOr = (BitSet) expectedLeft.clone();
+            expectedOr.or(expectedRight);
+            assertSameValues(expectedAnd, left.and(right));
+            assertSameValues(expectedOr, left.or(right));
+            assertSameValues(expectedLeft, left);
+        }
+    }
+
+    @Test
+    public void copy_isIndependent() {
+        RoaringBitmap bitmap = RoaringBitmap.of(1, 70_000);
+        RoaringBitmap copy = bitmap.copy();
+        bitmap.add(2);
+        copy.remove(70_000);
+        assertArrayEquals(new int[]{1, 2, 70_000}, bitmap.toArray());
+        assertArrayEquals(new int[]{1}, copy.toArray());
+    }
+}